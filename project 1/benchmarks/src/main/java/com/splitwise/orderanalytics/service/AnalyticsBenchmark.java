@@ -0,0 +1,124 @@
+package com.splitwise.orderanalytics.service;
+
+import com.splitwise.orderanalytics.OrderAnalyticsApplication;
+import com.splitwise.orderanalytics.dto.GroupDimension;
+import com.splitwise.orderanalytics.dto.OrderFilter;
+import com.splitwise.orderanalytics.dto.OrderPage;
+import com.splitwise.orderanalytics.dto.OrderStatistics;
+import com.splitwise.orderanalytics.entity.Order;
+import com.splitwise.orderanalytics.repository.OrderRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dashboard and statistics queries against the full application context on an in-memory H2
+ * database in SQL Server mode. Result caching is switched off so every call does the work;
+ * {@code columnar} toggles the in-memory column store to compare it with the SQL path, and
+ * {@code approximateStatistics} measures the sketch estimates next to the exact lists.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class AnalyticsBenchmark {
+
+    private static final int SEED_CHUNK = 5000;
+
+    @Param({"100000"})
+    int rows;
+
+    @Param({"true", "false"})
+    boolean columnar;
+
+    private ConfigurableApplicationContext context;
+    private OrderAnalysisService orderAnalysisService;
+    private OrderFilter customerFilter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        // Uploads write with SQL Server's MERGE ... OUTPUT, which H2 cannot run, so the rows are saved
+        // through JPA in one context and a second one builds its in-memory views from them at startup
+        try (ConfigurableApplicationContext seeding = start("create")) {
+            OrderRepository orderRepository = seeding.getBean(OrderRepository.class);
+            List<Order> orders = BenchmarkData.orders(rows);
+            for (int from = 0; from < orders.size(); from += SEED_CHUNK) {
+                orderRepository.saveAll(orders.subList(from, Math.min(from + SEED_CHUNK, orders.size())));
+            }
+        }
+        context = start("none");
+
+        // The column store loads in the background
+        OrderColumnStore orderColumnStore = context.getBean(OrderColumnStore.class);
+        while (columnar && !orderColumnStore.isReady()) {
+            Thread.sleep(100);
+        }
+
+        orderAnalysisService = context.getBean(OrderAnalysisService.class);
+        customerFilter = OrderFilter.of(null, null, null, null, "nguyen van 12", null, null);
+    }
+
+    // Command-line arguments outrank the packaged application.properties
+    private ConfigurableApplicationContext start(String ddlAuto) {
+        return new SpringApplicationBuilder(OrderAnalyticsApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:bench;MODE=MSSQLServer;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=" + ddlAuto,
+                        "--spring.jpa.show-sql=false",
+                        "--spring.cache.type=none",
+                        "--app.analytics.columnar.enabled=" + columnar);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public OrderStatistics overallStatistics() {
+        return orderAnalysisService.getOverallStatistics(OrderAnalysisService.DEFAULT_TOP_K, null, false);
+    }
+
+    @Benchmark
+    public OrderStatistics approximateStatistics() {
+        return orderAnalysisService.getOverallStatistics(OrderAnalysisService.DEFAULT_TOP_K, null, true);
+    }
+
+    @Benchmark
+    public OrderStatistics topRegions() {
+        return orderAnalysisService.getOverallStatistics(OrderAnalysisService.DEFAULT_TOP_K,
+                GroupDimension.REGION, false);
+    }
+
+    @Benchmark
+    public Map<String, Object> dashboardData() {
+        return orderAnalysisService.getDashboardData();
+    }
+
+    @Benchmark
+    public OrderPage filteredOrdersByCustomer() {
+        return orderAnalysisService.getFilteredOrders(customerFilter, null, 100);
+    }
+}
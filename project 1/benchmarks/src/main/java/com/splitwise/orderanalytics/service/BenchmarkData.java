@@ -0,0 +1,129 @@
+package com.splitwise.orderanalytics.service;
+
+import com.opencsv.CSVWriter;
+import com.splitwise.orderanalytics.entity.Order;
+import com.splitwise.orderanalytics.entity.OrderStatus;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic order data shaped like real uploads: a few hundred products and a few thousand
+ * customers with Vietnamese names, statuses written both as enum names and as display names.
+ */
+final class BenchmarkData {
+
+    static final String[] CSV_HEADER = {"orderCode", "customerName", "customerEmail", "productName",
+            "quantity", "unitPrice", "totalAmount", "status", "orderDate", "category", "region"};
+
+    private static final String[] FAMILY_NAMES = {"Nguyễn", "Trần", "Lê", "Phạm", "Hoàng", "Đặng", "Bùi", "Đỗ"};
+    private static final String[] REGIONS = {"Hà Nội", "Hồ Chí Minh", "Đà Nẵng", "Cần Thơ", "Hải Phòng"};
+    private static final String[] CATEGORIES = {"Điện thoại", "Laptop", "Phụ kiện", "Gia dụng", "Thời trang",
+            "Sách", "Đồ chơi", "Mỹ phẩm"};
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final LocalDateTime START = LocalDateTime.of(2023, 1, 1, 8, 0);
+
+    private BenchmarkData() {
+    }
+
+    static List<Order> orders(int count) {
+        Random random = new Random(42);
+        OrderStatus[] statuses = OrderStatus.values();
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int customer = random.nextInt(5000);
+            int product = random.nextInt(400);
+            int quantity = 1 + random.nextInt(10);
+            BigDecimal unitPrice = BigDecimal.valueOf(10_000L * (1 + product % 200));
+            orders.add(new Order(
+                    String.format("ORD%08d", i),
+                    FAMILY_NAMES[customer % FAMILY_NAMES.length] + " Văn " + customer,
+                    "khach" + customer + "@example.vn",
+                    "Sản phẩm " + product,
+                    quantity,
+                    unitPrice,
+                    unitPrice.multiply(BigDecimal.valueOf(quantity)),
+                    statuses[random.nextInt(statuses.length)],
+                    START.plusMinutes(random.nextInt(2 * 365 * 24 * 60)),
+                    CATEGORIES[product % CATEGORIES.length],
+                    REGIONS[customer % REGIONS.length]));
+        }
+        return orders;
+    }
+
+    static String[] csvRow(Order order, boolean displayStatus) {
+        return new String[] {
+                order.getOrderCode(),
+                order.getCustomerName(),
+                order.getCustomerEmail(),
+                order.getProductName(),
+                String.valueOf(order.getQuantity()),
+                order.getUnitPrice().toPlainString(),
+                order.getTotalAmount().toPlainString(),
+                displayStatus ? order.getStatus().getDisplayName() : order.getStatus().name(),
+                order.getOrderDate().format(DATE_FORMAT),
+                order.getCategory(),
+                order.getRegion()
+        };
+    }
+
+    static Path writeCsv(List<Order> orders) throws IOException {
+        Path file = Files.createTempFile("orders-bench", ".csv");
+        file.toFile().deleteOnExit();
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+             CSVWriter writer = new CSVWriter(out)) {
+            writer.writeNext(CSV_HEADER, false);
+            for (int i = 0; i < orders.size(); i++) {
+                writer.writeNext(csvRow(orders.get(i), i % 2 == 1), false);
+            }
+        }
+        return file;
+    }
+
+    static Path writeXlsx(List<Order> orders) throws IOException {
+        Path file = Files.createTempFile("orders-bench", ".xlsx");
+        file.toFile().deleteOnExit();
+        SXSSFWorkbook workbook = new SXSSFWorkbook(1000);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            Sheet sheet = workbook.createSheet("Orders");
+            Row header = sheet.createRow(0);
+            for (int c = 0; c < CSV_HEADER.length; c++) {
+                header.createCell(c).setCellValue(CSV_HEADER[c]);
+            }
+            for (int i = 0; i < orders.size(); i++) {
+                Order order = orders.get(i);
+                Row row = sheet.createRow(i + 1);
+                row.createCell(0).setCellValue(order.getOrderCode());
+                row.createCell(1).setCellValue(order.getCustomerName());
+                row.createCell(2).setCellValue(order.getCustomerEmail());
+                row.createCell(3).setCellValue(order.getProductName());
+                row.createCell(4).setCellValue(order.getQuantity());
+                row.createCell(5).setCellValue(order.getUnitPrice().doubleValue());
+                row.createCell(6).setCellValue(order.getTotalAmount().doubleValue());
+                row.createCell(7).setCellValue(order.getStatus().getDisplayName());
+                row.createCell(8).setCellValue(order.getOrderDate().format(DATE_FORMAT));
+                row.createCell(9).setCellValue(order.getCategory());
+                row.createCell(10).setCellValue(order.getRegion());
+            }
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+        return file;
+    }
+}
@@ -0,0 +1,76 @@
+package com.splitwise.orderanalytics.service;
+
+import com.splitwise.orderanalytics.entity.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole-file parse of generated uploads, without persistence: orders go to a sink that only
+ * consumes them, so the numbers are the parser's alone.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileParseBenchmark {
+
+    @Param({"10000", "100000"})
+    int rows;
+
+    private final FileUploadService service = new FileUploadService(1);
+    private Path csvFile;
+    private Path xlsxFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        List<Order> orders = BenchmarkData.orders(rows);
+        csvFile = BenchmarkData.writeCsv(orders);
+        xlsxFile = BenchmarkData.writeXlsx(orders);
+    }
+
+    @Benchmark
+    public long parseCsv(Blackhole blackhole) throws Exception {
+        CountingSink sink = new CountingSink(blackhole);
+        service.parseCsvFile(csvFile, sink);
+        return sink.accepted;
+    }
+
+    @Benchmark
+    public long parseXlsx(Blackhole blackhole) throws Exception {
+        CountingSink sink = new CountingSink(blackhole);
+        service.parseExcelFile(xlsxFile, xlsxFile.getFileName().toString(), sink);
+        return sink.accepted;
+    }
+
+    private static class CountingSink implements OrderSink {
+        private final Blackhole blackhole;
+        private long accepted;
+
+        CountingSink(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void accept(Order order) {
+            blackhole.consume(order);
+            accepted++;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.splitwise.orderanalytics.service;
+
+import com.splitwise.orderanalytics.entity.Order;
+import com.splitwise.orderanalytics.entity.OrderStatus;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-value costs of the upload parsers. The inputs cover each branch the real data reaches:
+ * every accepted date pattern, enum and display-name statuses, formatted money strings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParsingBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Parser {
+        final FileUploadService service = new FileUploadService(1);
+    }
+
+    @State(Scope.Benchmark)
+    public static class DateInput {
+        @Param({"2024-03-15 14:30:00", "15/03/2024 14:30:00", "2024-03-15", "03/15/2024", "invalid"})
+        String value;
+    }
+
+    @State(Scope.Benchmark)
+    public static class StatusInput {
+        @Param({"DELIVERED", "Đã giao", "đang giao hàng", "unknown"})
+        String value;
+    }
+
+    @State(Scope.Benchmark)
+    public static class CellInput {
+        @Param({"numeric", "plain", "formatted"})
+        String kind;
+
+        XSSFWorkbook workbook;
+        Cell cell;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            workbook = new XSSFWorkbook();
+            Row row = workbook.createSheet().createRow(0);
+            cell = row.createCell(0);
+            switch (kind) {
+                case "numeric":
+                    cell.setCellValue(1250000.5);
+                    break;
+                case "plain":
+                    cell.setCellValue("1250000.50");
+                    break;
+                default:
+                    cell.setCellValue("1,250,000₫");
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            workbook.close();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CsvInput {
+        CsvRowDecoder decoder;
+        String[] row;
+
+        @Setup(Level.Trial)
+        public void setUp(Parser parser) {
+            List<String[]> sample = new ArrayList<>();
+            for (Order order : BenchmarkData.orders(500)) {
+                sample.add(BenchmarkData.csvRow(order, sample.size() % 2 == 1));
+            }
+            decoder = CsvRowDecoder.compile(BenchmarkData.CSV_HEADER);
+            decoder = decoder.withFormat(decoder.sniff(sample, parser.service::parseOrderStatus));
+            row = sample.get(1);
+        }
+    }
+
+    @Benchmark
+    public LocalDateTime parseDate(Parser parser, DateInput input) {
+        return parser.service.parseDate(input.value);
+    }
+
+    @Benchmark
+    public OrderStatus parseOrderStatus(Parser parser, StatusInput input) {
+        return parser.service.parseOrderStatus(input.value);
+    }
+
+    @Benchmark
+    public BigDecimal getCellValueAsBigDecimal(Parser parser, CellInput input) {
+        return parser.service.getCellValueAsBigDecimal(input.cell);
+    }
+
+    @Benchmark
+    public Order mapCsvRowToOrder(Parser parser, CsvInput input) {
+        return parser.service.mapCsvRowToOrder(input.row, input.decoder);
+    }
+}
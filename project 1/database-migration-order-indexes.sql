@@ -0,0 +1,24 @@
+-- Thêm chỉ mục cho bảng orders trên database đã tồn tại (không phụ thuộc ddl-auto=update).
+-- Chạy được nhiều lần: chỉ mục đã có sẽ được bỏ qua.
+USE OrderAnalytics;
+GO
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_orders_order_date' AND object_id = OBJECT_ID('orders'))
+    CREATE INDEX idx_orders_order_date ON orders (order_date);
+GO
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_orders_status_order_date' AND object_id = OBJECT_ID('orders'))
+    CREATE INDEX idx_orders_status_order_date ON orders (status, order_date);
+GO
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_orders_product_name' AND object_id = OBJECT_ID('orders'))
+    CREATE INDEX idx_orders_product_name ON orders (product_name);
+GO
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_orders_customer_name' AND object_id = OBJECT_ID('orders'))
+    CREATE INDEX idx_orders_customer_name ON orders (customer_name);
+GO
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_orders_order_code' AND object_id = OBJECT_ID('orders'))
+    CREATE INDEX idx_orders_order_code ON orders (order_code);
+GO
@@ -0,0 +1,25 @@
+-- Thêm bảng tạm cho chế độ tải lên cập nhật theo mã đơn hàng trên database đã tồn tại (không phụ thuộc ddl-auto=update).
+-- Chạy được nhiều lần: bảng đã có sẽ được bỏ qua.
+USE OrderAnalytics;
+GO
+
+IF NOT EXISTS (SELECT 1 FROM sys.tables WHERE name = 'orders_staging')
+BEGIN
+    CREATE TABLE orders_staging (
+        id BIGINT IDENTITY(1,1) PRIMARY KEY,
+        batch_id NVARCHAR(36) NOT NULL,
+        order_code NVARCHAR(50) NOT NULL,
+        customer_name NVARCHAR(100),
+        customer_email NVARCHAR(100),
+        product_name NVARCHAR(200),
+        quantity INT,
+        unit_price DECIMAL(19,2),
+        total_amount DECIMAL(19,2),
+        status NVARCHAR(20),
+        order_date DATETIME2,
+        category NVARCHAR(100),
+        region NVARCHAR(100)
+    );
+    CREATE INDEX idx_orders_staging_batch ON orders_staging (batch_id, order_code);
+END
+GO
@@ -0,0 +1,21 @@
+-- Thêm sổ biến động tồn kho trên database đã tồn tại (không phụ thuộc ddl-auto=update).
+-- Chạy được nhiều lần: bảng đã có sẽ được bỏ qua.
+-- Tồn kho hiện có trong products.stock_quantity trở thành số dư đầu kỳ của sổ.
+USE OrderAnalytics;
+GO
+
+IF NOT EXISTS (SELECT 1 FROM sys.tables WHERE name = 'stock_movements')
+BEGIN
+    CREATE TABLE stock_movements (
+        id BIGINT IDENTITY(1,1) PRIMARY KEY,
+        product_id BIGINT NOT NULL,
+        delta INT NOT NULL,
+        reason NVARCHAR(20) NOT NULL,
+        order_id BIGINT,
+        created_at DATETIME2 NOT NULL,
+        applied BIT NOT NULL DEFAULT 0
+    );
+    CREATE INDEX idx_stock_movements_applied ON stock_movements (applied, product_id);
+    CREATE INDEX idx_stock_movements_product_time ON stock_movements (product_id, created_at);
+END
+GO
@@ -32,3 +32,53 @@ CREATE TABLE orders (
     category NVARCHAR(100),
     region NVARCHAR(100)
 );
+
+-- 4. Bảng tổng hợp doanh thu theo ngày (dựng lại bằng POST /api/revenue-rollup/rebuild)
+CREATE TABLE revenue_rollup (
+    id BIGINT IDENTITY(1,1) PRIMARY KEY,
+    revenue_date DATE NOT NULL,
+    status NVARCHAR(20) NOT NULL,
+    category NVARCHAR(100) NOT NULL,
+    region NVARCHAR(100) NOT NULL,
+    order_count BIGINT NOT NULL,
+    revenue DECIMAL(19,2) NOT NULL,
+    CONSTRAINT uk_revenue_rollup_key UNIQUE (revenue_date, status, category, region)
+);
+
+-- 5. Chỉ mục cho các truy vấn lọc và sắp xếp đơn hàng
+CREATE INDEX idx_orders_order_date ON orders (order_date);
+CREATE INDEX idx_orders_status_order_date ON orders (status, order_date);
+CREATE INDEX idx_orders_product_name ON orders (product_name);
+CREATE INDEX idx_orders_customer_name ON orders (customer_name);
+CREATE INDEX idx_orders_order_code ON orders (order_code);
+
+-- 6. Bảng tạm cho chế độ tải lên cập nhật theo mã đơn hàng (mode=upsert)
+CREATE TABLE orders_staging (
+    id BIGINT IDENTITY(1,1) PRIMARY KEY,
+    batch_id NVARCHAR(36) NOT NULL,
+    order_code NVARCHAR(50) NOT NULL,
+    customer_name NVARCHAR(100),
+    customer_email NVARCHAR(100),
+    product_name NVARCHAR(200),
+    quantity INT,
+    unit_price DECIMAL(19,2),
+    total_amount DECIMAL(19,2),
+    status NVARCHAR(20),
+    order_date DATETIME2,
+    category NVARCHAR(100),
+    region NVARCHAR(100)
+);
+CREATE INDEX idx_orders_staging_batch ON orders_staging (batch_id, order_code);
+
+-- 7. Sổ biến động tồn kho (chỉ ghi thêm); được gộp định kỳ vào products.stock_quantity
+CREATE TABLE stock_movements (
+    id BIGINT IDENTITY(1,1) PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    delta INT NOT NULL,
+    reason NVARCHAR(20) NOT NULL,
+    order_id BIGINT,
+    created_at DATETIME2 NOT NULL,
+    applied BIT NOT NULL DEFAULT 0
+);
+CREATE INDEX idx_stock_movements_applied ON stock_movements (applied, product_id);
+CREATE INDEX idx_stock_movements_product_time ON stock_movements (product_id, created_at);
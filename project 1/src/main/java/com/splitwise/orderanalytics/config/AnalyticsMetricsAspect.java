@@ -0,0 +1,49 @@
+package com.splitwise.orderanalytics.config;
+
+import com.splitwise.orderanalytics.repository.SqlStatementCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every public {@code OrderAnalysisService} method and records how many SQL statements the
+ * call ran, both tagged with the method name. Calls answered from the cache never reach the
+ * service and are not counted here; the cache meters cover them.
+ */
+@Aspect
+@Component
+public class AnalyticsMetricsAspect {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Around("execution(public * com.splitwise.orderanalytics.service.OrderAnalysisService.*(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        long statementsBefore = SqlStatementCounter.current();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("orders.analytics.query")
+                    .description("Time spent in OrderAnalysisService methods")
+                    .tag("method", method)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+            DistributionSummary.builder("orders.analytics.statements")
+                    .description("SQL statements executed per OrderAnalysisService call")
+                    .tag("method", method)
+                    .register(meterRegistry)
+                    .record(SqlStatementCounter.current() - statementsBefore);
+        }
+    }
+}
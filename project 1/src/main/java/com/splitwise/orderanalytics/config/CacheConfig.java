@@ -0,0 +1,10 @@
+package com.splitwise.orderanalytics.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+// Caches and their Caffeine spec are declared in application.properties (spring.cache.*)
+@Configuration
+@EnableCaching
+public class CacheConfig {
+}
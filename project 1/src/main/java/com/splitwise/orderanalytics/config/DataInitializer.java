@@ -3,6 +3,8 @@ package com.splitwise.orderanalytics.config;
 import com.splitwise.orderanalytics.entity.Order;
 import com.splitwise.orderanalytics.entity.OrderStatus;
 import com.splitwise.orderanalytics.repository.OrderRepository;
+import com.splitwise.orderanalytics.repository.RevenueRollupRepository;
+import com.splitwise.orderanalytics.service.RevenueRollupService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
@@ -16,6 +18,12 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private RevenueRollupRepository revenueRollupRepository;
+
+    @Autowired
+    private RevenueRollupService revenueRollupService;
+
     @Override
     public void run(String... args) throws Exception {
         // Tạo dữ liệu mẫu nếu database trống
@@ -23,6 +31,10 @@ public class DataInitializer implements CommandLineRunner {
             if (orderRepository.count() == 0) {
                 createSampleData();
                 System.out.println("Đã tạo dữ liệu mẫu thành công!");
+            } else if (revenueRollupRepository.count() == 0) {
+                // Backfill bảng tổng hợp doanh thu cho dữ liệu có sẵn
+                int rows = revenueRollupService.rebuild();
+                System.out.println("Đã dựng lại bảng revenue_rollup: " + rows + " dòng");
             }
         } catch (Exception e) {
             System.err.println("Không thể tạo dữ liệu mẫu: " + e.getMessage());
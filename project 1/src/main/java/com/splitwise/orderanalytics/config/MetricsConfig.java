@@ -0,0 +1,26 @@
+package com.splitwise.orderanalytics.config;
+
+import com.splitwise.orderanalytics.repository.CountingJdbcTemplate;
+import com.splitwise.orderanalytics.repository.SqlStatementCounter;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+// Actuator, Hikari, Hibernate and cache meters are auto-configured; this wires up the SQL statement counts
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public JdbcTemplate jdbcTemplate(DataSource dataSource) {
+        return new CountingJdbcTemplate(dataSource);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounter() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementCounter());
+    }
+}
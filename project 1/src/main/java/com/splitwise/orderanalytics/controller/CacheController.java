@@ -0,0 +1,20 @@
+package com.splitwise.orderanalytics.controller;
+
+import com.splitwise.orderanalytics.service.DashboardCacheService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    @Autowired
+    private DashboardCacheService dashboardCacheService;
+
+    @GetMapping("/stats")
+    public Map<String, Object> getStats() {
+        return dashboardCacheService.getStats();
+    }
+}
@@ -1,20 +1,43 @@
 package com.splitwise.orderanalytics.controller;
 
+import com.splitwise.orderanalytics.dto.ColumnarOrders;
+import com.splitwise.orderanalytics.dto.GroupDimension;
+import com.splitwise.orderanalytics.dto.OrderField;
+import com.splitwise.orderanalytics.dto.OrderFilter;
+import com.splitwise.orderanalytics.dto.OrderPage;
 import com.splitwise.orderanalytics.dto.OrderStatistics;
+import com.splitwise.orderanalytics.dto.UploadMode;
 import com.splitwise.orderanalytics.entity.Order;
-import com.splitwise.orderanalytics.service.FileUploadService;
+import com.splitwise.orderanalytics.service.DashboardStreamService;
+import com.splitwise.orderanalytics.service.DistinctCountService;
 import com.splitwise.orderanalytics.service.OrderAnalysisService;
+import com.splitwise.orderanalytics.service.OrderExportService;
+import com.splitwise.orderanalytics.service.OrderSearchIndex;
+import com.splitwise.orderanalytics.service.UploadJob;
+import com.splitwise.orderanalytics.service.UploadJobService;
+import com.splitwise.orderanalytics.service.UploadSource;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
 
 @Controller
 public class OrderController {
@@ -23,7 +46,26 @@ public class OrderController {
     private OrderAnalysisService orderAnalysisService;
 
     @Autowired
-    private FileUploadService fileUploadService;
+    private UploadJobService uploadJobService;
+
+    @Autowired
+    private DistinctCountService distinctCountService;
+
+    @Autowired
+    private OrderSearchIndex orderSearchIndex;
+
+    @Autowired
+    private DashboardStreamService dashboardStreamService;
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    // Filter parameters matched as typed, accents included, because they matched too many values
+    private static final String LITERAL_MATCH_HEADER = "X-Literal-Match";
+
+    private static final MediaType COLUMNAR_JSON = MediaType.parseMediaType(ColumnarOrders.MEDIA_TYPE);
 
     @GetMapping("/")
     public String index(Model model) {
@@ -34,14 +76,124 @@ public class OrderController {
 
     @GetMapping("/api/statistics")
     @ResponseBody
-    public ResponseEntity<OrderStatistics> getStatistics() {
-        OrderStatistics statistics = orderAnalysisService.getOverallStatistics();
+    public ResponseEntity<OrderStatistics> getStatistics(
+            @RequestParam(defaultValue = "" + OrderAnalysisService.DEFAULT_TOP_K) int topK,
+            @RequestParam(required = false) String dimension,
+            @RequestParam(defaultValue = "false") boolean approximate) {
+        GroupDimension groupDimension;
+        try {
+            groupDimension = dimension != null && !dimension.isBlank() ? GroupDimension.parse(dimension) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        OrderStatistics statistics = orderAnalysisService.getOverallStatistics(topK, groupDimension, approximate);
         return ResponseEntity.ok(statistics);
     }
 
+    @GetMapping("/api/statistics/distinct")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getDistinctCounts(
+            @RequestParam(required = false) String fromMonth,
+            @RequestParam(required = false) String toMonth,
+            @RequestParam(required = false) String region,
+            @RequestParam(required = false) String category) {
+        if (!distinctCountService.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+
+        try {
+            YearMonth from = fromMonth != null && !fromMonth.isBlank() ? YearMonth.parse(fromMonth) : null;
+            YearMonth to = toMonth != null && !toMonth.isBlank() ? YearMonth.parse(toMonth) : null;
+            return ResponseEntity.ok(distinctCountService.count(from, to,
+                    region != null && !region.isBlank() ? region : null,
+                    category != null && !category.isBlank() ? category : null));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/api/orders")
     @ResponseBody
-    public ResponseEntity<List<Order>> getOrders(
+    public ResponseEntity<?> getOrders(
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String productName,
+            @RequestParam(required = false) String customerName,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String region,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        
+        OrderPage page;
+        boolean columnar;
+        List<OrderField> orderFields;
+        try {
+            columnar = isColumnar(format, accept);
+            orderFields = OrderField.parseList(fields);
+            OrderFilter filter = OrderFilter.of(
+                startDate, endDate, status, productName, customerName, category, region);
+            page = orderAnalysisService.getFilteredOrders(filter, cursor, size);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().header(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (page.hasMore()) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        if (!page.getLiteralMatches().isEmpty()) {
+            response.header(LITERAL_MATCH_HEADER, page.getLiteralMatches().stream()
+                    .map(GroupDimension::getAttribute).collect(Collectors.joining(",")));
+        }
+        if (columnar) {
+            return response.contentType(COLUMNAR_JSON).body(ColumnarOrders.of(page.getOrders(), orderFields));
+        }
+        return response.body(page.getOrders());
+    }
+
+    // Columnar output is opt-in: ?format=columnar, or the columnar media type in the Accept header
+    private static boolean isColumnar(String format, String accept) {
+        if (format != null && !format.isBlank()) {
+            if (format.equalsIgnoreCase("columnar")) {
+                return true;
+            }
+            if (format.equalsIgnoreCase("rows")) {
+                return false;
+            }
+            throw new IllegalArgumentException("Unknown format: " + format);
+        }
+        return accept != null && accept.contains(ColumnarOrders.MEDIA_TYPE);
+    }
+
+    @GetMapping("/api/orders/suggest")
+    @ResponseBody
+    public ResponseEntity<List<String>> suggest(
+            @RequestParam String field,
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        GroupDimension dimension;
+        try {
+            dimension = GroupDimension.parse(field);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!orderSearchIndex.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+
+        List<String> values = orderSearchIndex.search(dimension, q).getValues();
+        return ResponseEntity.ok(values.size() > limit ? values.subList(0, Math.max(0, limit)) : values);
+    }
+
+    @GetMapping("/api/orders/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
             @RequestParam(required = false) String startDate,
             @RequestParam(required = false) String endDate,
             @RequestParam(required = false) String status,
@@ -49,10 +201,26 @@ public class OrderController {
             @RequestParam(required = false) String customerName,
             @RequestParam(required = false) String category,
             @RequestParam(required = false) String region) {
-        
-        List<Order> orders = orderAnalysisService.getFilteredOrders(
-            startDate, endDate, status, productName, customerName, category, region);
-        return ResponseEntity.ok(orders);
+
+        OrderExportService.Format exportFormat;
+        OrderFilter filter;
+        try {
+            exportFormat = OrderExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+            filter = OrderFilter.of(startDate, endDate, status, productName, customerName, category, region);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        boolean csv = exportFormat == OrderExportService.Format.CSV;
+        String fileName = csv ? "orders.csv" : "orders.json";
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(out -> orderExportService.export(filter, exportFormat, gzip, out));
     }
 
     @PutMapping("/api/orders/{id}")
@@ -77,7 +245,8 @@ public class OrderController {
 
     @PostMapping("/api/upload")
     @ResponseBody
-    public ResponseEntity<Map<String, Object>> uploadFile(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<Map<String, Object>> uploadFile(@RequestParam("file") MultipartFile file,
+            @RequestParam(defaultValue = "insert") String mode) {
         Map<String, Object> response = new HashMap<>();
         
         try {
@@ -94,36 +263,35 @@ public class OrderController {
                 return ResponseEntity.badRequest().body(response);
             }
 
-            List<Order> orders;
-            if (fileName.endsWith(".xlsx") || fileName.endsWith(".xls")) {
-                orders = fileUploadService.parseExcelFile(file);
-            } else if (fileName.endsWith(".csv")) {
-                try {
-                    orders = fileUploadService.parseCsvFile(file);
-                } catch (com.opencsv.exceptions.CsvValidationException e) {
-                    response.put("success", false);
-                    response.put("message", "Lỗi định dạng CSV: " + e.getMessage());
-                    return ResponseEntity.badRequest().body(response);
-                }
-            } else {
+            if (!UploadSource.isSupported(fileName)) {
                 response.put("success", false);
-                response.put("message", "Chỉ hỗ trợ file Excel (.xlsx, .xls) hoặc CSV (.csv)");
+                response.put("message", "Chỉ hỗ trợ file Excel (.xlsx, .xls), CSV (.csv) hoặc file ZIP chứa các file đó");
                 return ResponseEntity.badRequest().body(response);
             }
 
-            if (orders.isEmpty()) {
+            UploadMode uploadMode;
+            try {
+                uploadMode = UploadMode.parse(mode);
+            } catch (IllegalArgumentException e) {
                 response.put("success", false);
-                response.put("message", "Không tìm thấy dữ liệu hợp lệ trong file");
+                response.put("message", "Chế độ tải lên không hợp lệ: " + mode);
                 return ResponseEntity.badRequest().body(response);
             }
 
-            fileUploadService.saveOrders(orders);
+            UploadJob job;
+            try {
+                job = uploadJobService.submit(file, uploadMode);
+            } catch (RejectedExecutionException e) {
+                response.put("success", false);
+                response.put("message", "Hệ thống đang bận, vui lòng thử lại sau");
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+            }
 
             response.put("success", true);
-            response.put("message", "Tải lên và xử lý file thành công");
-            response.put("ordersCount", orders.size());
+            response.put("message", "Đã nhận file, đang xử lý");
+            response.put("jobId", job.getId());
             
-            return ResponseEntity.ok(response);
+            return ResponseEntity.accepted().body(response);
             
         } catch (Exception e) {
             response.put("success", false);
@@ -132,11 +300,55 @@ public class OrderController {
         }
     }
 
+    @GetMapping("/api/upload/{jobId}")
+    @ResponseBody
+    public ResponseEntity<UploadJob> getUploadJob(@PathVariable String jobId) {
+        return uploadJobService.find(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/api/upload/{jobId}")
+    @ResponseBody
+    public ResponseEntity<UploadJob> cancelUploadJob(@PathVariable String jobId) {
+        return uploadJobService.cancel(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @GetMapping("/api/dashboard")
     @ResponseBody
-    public ResponseEntity<Map<String, Object>> getDashboardData() {
+    public ResponseEntity<Map<String, Object>> getDashboardData(
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        boolean columnar;
+        List<OrderField> orderFields;
+        try {
+            columnar = isColumnar(format, accept);
+            orderFields = OrderField.parseList(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
         Map<String, Object> dashboardData = orderAnalysisService.getDashboardData();
-        return ResponseEntity.ok(dashboardData);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().header(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (!columnar) {
+            return response.body(dashboardData);
+        }
+
+        // The service's map is cached, so the columnar variant goes into a copy
+        Map<String, Object> columnarData = new HashMap<>(dashboardData);
+        @SuppressWarnings("unchecked")
+        List<Order> recentOrders = (List<Order>) dashboardData.get("recentOrders");
+        columnarData.put("recentOrders", ColumnarOrders.of(recentOrders, orderFields));
+        return response.contentType(COLUMNAR_JSON).body(columnarData);
+    }
+
+    @GetMapping(value = "/api/dashboard/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public SseEmitter streamDashboard() {
+        return dashboardStreamService.subscribe();
     }
 
     @GetMapping("/orders")
@@ -1,11 +1,21 @@
 package com.splitwise.orderanalytics.controller;
 
 import com.splitwise.orderanalytics.entity.Product;
+import com.splitwise.orderanalytics.entity.StockMovementReason;
 import com.splitwise.orderanalytics.repository.ProductRepository;
+import com.splitwise.orderanalytics.repository.StockMovementRepository;
+import com.splitwise.orderanalytics.service.ProductStockService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -13,34 +23,118 @@ import java.util.Map;
 @RequestMapping("/api/products")
 public class ProductController {
 
+    private static final int MAX_MOVEMENTS = 1000;
+
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductStockService productStockService;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
     @GetMapping
     public List<Product> getAllProducts() {
-        return productRepository.findAll();
+        List<Product> products = productRepository.findAll();
+        productStockService.fillCurrentStock(products);
+        return products;
     }
 
     @PostMapping
-    public Product createOrUpdateProduct(@RequestBody Product product) {
-        return productRepository.findByName(product.getName())
+    public ResponseEntity<?> createOrUpdateProduct(@RequestBody Product product) {
+        if (product.getName() == null || product.getStockQuantity() == null) {
+            return ResponseEntity.badRequest().body("Name and stock quantity are required");
+        }
+        return ResponseEntity.ok(productRepository.findByName(product.getName())
                 .map(existingProduct -> {
-                    existingProduct.setStockQuantity(product.getStockQuantity());
-                    return productRepository.save(existingProduct);
+                    existingProduct.setStockQuantity(productStockService.setStock(
+                            existingProduct.getId(), product.getStockQuantity(), null));
+                    return existingProduct;
                 })
-                .orElseGet(() -> productRepository.save(product));
+                .orElseGet(() -> productRepository.save(product)));
     }
 
+    /**
+     * {"delta": n} adds n to the stock. {"quantity": n} sets it; with "expected" it only does so
+     * if the stock is still the value the client saw.
+     */
     @PutMapping("/{id}/stock")
-    public ResponseEntity<?> updateStock(@PathVariable Long id, @RequestBody Map<String, Integer> payload) {
-        return productRepository.findById(id)
-                .map(product -> {
-                    if (payload.containsKey("quantity")) {
-                        product.setStockQuantity(payload.get("quantity"));
-                        return ResponseEntity.ok(productRepository.save(product));
-                    }
-                    return ResponseEntity.badRequest().body("Quantity is required");
-                })
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<?> updateStock(@PathVariable Long id, @RequestBody Map<String, Long> payload) {
+        Integer stock;
+        if (payload.containsKey("delta")) {
+            Integer delta = toInt(payload.get("delta"));
+            if (delta == null) {
+                return ResponseEntity.badRequest().body("Delta must be a whole number within int range");
+            }
+            if (!productRepository.existsById(id)) {
+                return ResponseEntity.notFound().build();
+            }
+            productStockService.adjustById(id, delta, StockMovementReason.ADJUSTMENT);
+            stock = productStockService.currentStock(id);
+        } else if (payload.containsKey("quantity")) {
+            Integer quantity = toInt(payload.get("quantity"));
+            Integer expected = toInt(payload.get("expected"));
+            if (quantity == null || (payload.get("expected") != null && expected == null)) {
+                return ResponseEntity.badRequest().body("Quantity and expected must be whole numbers within int range");
+            }
+            stock = productStockService.setStock(id, quantity, expected);
+        } else {
+            return ResponseEntity.badRequest().body("Quantity is required");
+        }
+        if (stock == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Product product = productRepository.findById(id).orElseThrow();
+        product.setStockQuantity(stock);
+        return ResponseEntity.ok(product);
+    }
+
+    /** Stock now, or at {@code at} (ISO date-time, or a date meaning the end of that day). */
+    @GetMapping("/{id}/stock")
+    public ResponseEntity<?> getStock(@PathVariable Long id, @RequestParam(required = false) String at) {
+        LocalDateTime moment;
+        try {
+            moment = at == null || at.isBlank() ? null
+                    : at.length() == 10 ? LocalDateTime.parse(at + "T23:59:59") : LocalDateTime.parse(at);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body("Invalid date: " + at);
+        }
+        Integer stock = moment == null ? productStockService.currentStock(id) : productStockService.stockAt(id, moment);
+        if (stock == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("productId", id);
+        response.put("at", moment);
+        response.put("stockQuantity", stock);
+        return ResponseEntity.ok(response);
+    }
+
+    /** The product's ledger, newest first. */
+    @GetMapping("/{id}/movements")
+    public ResponseEntity<?> getMovements(@PathVariable Long id,
+            @RequestParam(defaultValue = "50") int limit) {
+        if (!productRepository.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        int size = Math.max(1, Math.min(limit, MAX_MOVEMENTS));
+        return ResponseEntity.ok(stockMovementRepository.findByProductIdOrderByIdDesc(id, PageRequest.of(0, size)));
+    }
+
+    // null for a missing value or one outside int range
+    private static Integer toInt(Long value) {
+        return value != null && value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE ? value.intValue() : null;
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleConcurrentUpdate() {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("Stock was changed concurrently, reload and retry");
+    }
+
+    // A deadlock victim or lock timeout, e.g. a stock count racing a compaction; nothing was written
+    @ExceptionHandler(PessimisticLockingFailureException.class)
+    public ResponseEntity<String> handleLockConflict() {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("Stock is being updated concurrently, retry");
     }
 }
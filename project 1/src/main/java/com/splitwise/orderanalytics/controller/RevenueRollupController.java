@@ -0,0 +1,27 @@
+package com.splitwise.orderanalytics.controller;
+
+import com.splitwise.orderanalytics.service.DashboardCacheService;
+import com.splitwise.orderanalytics.service.RevenueRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/revenue-rollup")
+public class RevenueRollupController {
+
+    @Autowired
+    private RevenueRollupService revenueRollupService;
+
+    @Autowired
+    private DashboardCacheService dashboardCacheService;
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuild() {
+        int rows = revenueRollupService.rebuild();
+        dashboardCacheService.invalidate();
+        return ResponseEntity.ok(Map.of("success", true, "rollupRows", rows));
+    }
+}
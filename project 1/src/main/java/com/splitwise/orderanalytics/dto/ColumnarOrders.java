@@ -0,0 +1,77 @@
+package com.splitwise.orderanalytics.dto;
+
+import com.splitwise.orderanalytics.entity.Order;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Orders as one array per field instead of one object per order, so field names are written once
+ * rather than once per row. A text column that repeats (status, product, customer, category,
+ * region) is dictionary-encoded: {@code dictionaries} holds its distinct values and the column
+ * holds indexes into them. Field {@code f} of row {@code i} is {@code columns[f][i]}, or
+ * {@code dictionaries[f][columns[f][i]]} when {@code f} has a dictionary.
+ */
+public class ColumnarOrders {
+
+    public static final String MEDIA_TYPE = "application/vnd.orderanalytics.columnar+json";
+
+    private final int count;
+    private final Map<String, Object> columns = new LinkedHashMap<>();
+    private final Map<String, List<Object>> dictionaries = new LinkedHashMap<>();
+
+    private ColumnarOrders(int count) {
+        this.count = count;
+    }
+
+    public static ColumnarOrders of(List<Order> orders, List<OrderField> fields) {
+        ColumnarOrders result = new ColumnarOrders(orders.size());
+        for (OrderField field : fields) {
+            List<Object> values = new ArrayList<>(orders.size());
+            for (Order order : orders) {
+                values.add(field.valueOf(order));
+            }
+            result.addColumn(field, values);
+        }
+        return result;
+    }
+
+    // Dictionary-encodes a repetitive column when that at least halves the number of values written
+    private void addColumn(OrderField field, List<Object> values) {
+        if (field.isRepetitive()) {
+            Map<Object, Integer> codes = new HashMap<>();
+            List<Object> dictionary = new ArrayList<>();
+            int[] encoded = new int[values.size()];
+            for (int i = 0; i < encoded.length; i++) {
+                Integer code = codes.get(values.get(i));
+                if (code == null) {
+                    code = dictionary.size();
+                    codes.put(values.get(i), code);
+                    dictionary.add(values.get(i));
+                }
+                encoded[i] = code;
+            }
+            if (dictionary.size() * 2 <= encoded.length) {
+                columns.put(field.getName(), encoded);
+                dictionaries.put(field.getName(), dictionary);
+                return;
+            }
+        }
+        columns.put(field.getName(), values);
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public Map<String, Object> getColumns() {
+        return columns;
+    }
+
+    public Map<String, List<Object>> getDictionaries() {
+        return dictionaries;
+    }
+}
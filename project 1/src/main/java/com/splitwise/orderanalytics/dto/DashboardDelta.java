@@ -0,0 +1,134 @@
+package com.splitwise.orderanalytics.dto;
+
+import com.splitwise.orderanalytics.entity.Order;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Change to the dashboard numbers since the previous stream message. Counters are signed
+ * differences; recentOrders holds the newest orders inserted in the interval, updatedOrders the
+ * new state of edited ones and removedIds the deleted ones.
+ *
+ * <p>Each committed change advances the version by one; a delta covers the changes after
+ * fromVersion up to and including version. Once more than maxRows orders were edited or deleted
+ * the row lists are dropped and only the counters are kept, since the client will refetch.
+ */
+public class DashboardDelta {
+
+    private static final Comparator<Order> NEWEST_FIRST = Comparator.comparing(Order::getOrderDate)
+            .thenComparing(Order::getId, Comparator.nullsFirst(Comparator.naturalOrder())).reversed();
+
+    private long totalOrders;
+    private BigDecimal totalRevenue = BigDecimal.ZERO;
+    private final Map<String, Long> ordersByStatus = new LinkedHashMap<>();
+    private final Map<String, BigDecimal> revenueByStatus = new LinkedHashMap<>();
+    private final List<Order> recentOrders = new ArrayList<>();
+    private final List<Order> updatedOrders = new ArrayList<>();
+    private final List<Long> removedIds = new ArrayList<>();
+
+    private final int recentLimit;
+    private final int maxRows;
+    private final long fromVersion;
+    private long version;
+    private boolean refetch;
+
+    public DashboardDelta(int recentLimit, int maxRows, long fromVersion) {
+        this.recentLimit = recentLimit;
+        this.maxRows = maxRows;
+        this.fromVersion = fromVersion;
+        this.version = fromVersion;
+    }
+
+    public void apply(List<Order> added, List<Order> removed) {
+        version++;
+        Set<Long> removedIdSet = new HashSet<>();
+        for (Order order : removed) {
+            count(order, -1);
+            removedIdSet.add(order.getId());
+        }
+
+        List<Order> inserted = new ArrayList<>();
+        for (Order order : added) {
+            count(order, 1);
+            if (order.getId() != null && removedIdSet.remove(order.getId())) {
+                updatedOrders.add(order);
+            } else {
+                inserted.add(order);
+            }
+        }
+        removedIds.addAll(removedIdSet);
+        if (refetch || updatedOrders.size() + removedIds.size() > maxRows) {
+            refetch = true;
+            updatedOrders.clear();
+            removedIds.clear();
+        }
+
+        inserted.sort(NEWEST_FIRST);
+        recentOrders.addAll(inserted.subList(0, Math.min(recentLimit, inserted.size())));
+        recentOrders.sort(NEWEST_FIRST);
+        if (recentOrders.size() > recentLimit) {
+            recentOrders.subList(recentLimit, recentOrders.size()).clear();
+        }
+    }
+
+    public boolean isEmpty() {
+        return version == fromVersion;
+    }
+
+    private void count(Order order, int sign) {
+        String status = order.getStatus().getDisplayName();
+        BigDecimal amount = sign > 0 ? order.getTotalAmount() : order.getTotalAmount().negate();
+        totalOrders += sign;
+        totalRevenue = totalRevenue.add(amount);
+        ordersByStatus.merge(status, (long) sign, Long::sum);
+        revenueByStatus.merge(status, amount, BigDecimal::add);
+    }
+
+    public long getFromVersion() {
+        return fromVersion;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /** True when the rows no longer fit the message and the client should reload the dashboard. */
+    public boolean isRefetch() {
+        return refetch;
+    }
+
+    public long getTotalOrders() {
+        return totalOrders;
+    }
+
+    public BigDecimal getTotalRevenue() {
+        return totalRevenue;
+    }
+
+    public Map<String, Long> getOrdersByStatus() {
+        return ordersByStatus;
+    }
+
+    public Map<String, BigDecimal> getRevenueByStatus() {
+        return revenueByStatus;
+    }
+
+    public List<Order> getRecentOrders() {
+        return recentOrders;
+    }
+
+    public List<Order> getUpdatedOrders() {
+        return updatedOrders;
+    }
+
+    public List<Long> getRemovedIds() {
+        return removedIds;
+    }
+}
@@ -0,0 +1,59 @@
+package com.splitwise.orderanalytics.dto;
+
+import java.util.List;
+
+/** Outcome of one file, or one sheet, of a multi-part upload. */
+public class FileImportResult {
+    private String name;
+    private long rowsParsed;
+    private long rowsRejected;
+    private List<String> warnings = List.of();
+    private String error;
+
+    public FileImportResult() {}
+
+    public FileImportResult(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getRowsParsed() {
+        return rowsParsed;
+    }
+
+    public void setRowsParsed(long rowsParsed) {
+        this.rowsParsed = rowsParsed;
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    public void setRowsRejected(long rowsRejected) {
+        this.rowsRejected = rowsRejected;
+    }
+
+    public List<String> getWarnings() {
+        return warnings;
+    }
+
+    public void setWarnings(List<String> warnings) {
+        this.warnings = warnings;
+    }
+
+    /** Why the file was abandoned, or null when it was read to the end. */
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,35 @@
+package com.splitwise.orderanalytics.dto;
+
+import java.util.Locale;
+
+/** Text columns of an order that statistics group by and the search index covers. */
+public enum GroupDimension {
+    PRODUCT("product_name", "productName"),
+    CUSTOMER("customer_name", "customerName"),
+    CATEGORY("category", "category"),
+    REGION("region", "region");
+
+    private final String column;
+    private final String attribute;
+
+    GroupDimension(String column, String attribute) {
+        this.column = column;
+        this.attribute = attribute;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    /** Name of the {@code Order} entity attribute, for JPA queries. */
+    public String getAttribute() {
+        return attribute;
+    }
+
+    /**
+     * @throws IllegalArgumentException for an unknown dimension name
+     */
+    public static GroupDimension parse(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,96 @@
+package com.splitwise.orderanalytics.dto;
+
+import java.util.List;
+
+public class ImportResult {
+    private long rowsPersisted;
+    private long rowsRejected;
+    private long rowsUpdated;
+    private long rowsUnchanged;
+    private long chunks;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    private List<String> warnings = List.of();
+    private List<FileImportResult> files = List.of();
+
+    public ImportResult() {}
+
+    public ImportResult(long rowsPersisted, long chunks, long elapsedMillis) {
+        this.rowsPersisted = rowsPersisted;
+        this.chunks = chunks;
+        this.elapsedMillis = elapsedMillis;
+        this.rowsPerSecond = elapsedMillis > 0 ? rowsPersisted * 1000.0 / elapsedMillis : rowsPersisted;
+    }
+
+    public long getRowsPersisted() {
+        return rowsPersisted;
+    }
+
+    public void setRowsPersisted(long rowsPersisted) {
+        this.rowsPersisted = rowsPersisted;
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    public void setRowsRejected(long rowsRejected) {
+        this.rowsRejected = rowsRejected;
+    }
+
+    public long getRowsUpdated() {
+        return rowsUpdated;
+    }
+
+    public void setRowsUpdated(long rowsUpdated) {
+        this.rowsUpdated = rowsUpdated;
+    }
+
+    public long getRowsUnchanged() {
+        return rowsUnchanged;
+    }
+
+    public void setRowsUnchanged(long rowsUnchanged) {
+        this.rowsUnchanged = rowsUnchanged;
+    }
+
+    public long getChunks() {
+        return chunks;
+    }
+
+    public void setChunks(long chunks) {
+        this.chunks = chunks;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    public List<String> getWarnings() {
+        return warnings;
+    }
+
+    public void setWarnings(List<String> warnings) {
+        this.warnings = warnings;
+    }
+
+    public List<FileImportResult> getFiles() {
+        return files;
+    }
+
+    public void setFiles(List<FileImportResult> files) {
+        this.files = files;
+    }
+}
@@ -0,0 +1,73 @@
+package com.splitwise.orderanalytics.dto;
+
+import com.splitwise.orderanalytics.entity.Order;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/** Order attributes a columnar response can carry, named as in the row-per-object JSON. */
+public enum OrderField {
+    ID("id", false, Order::getId),
+    ORDER_CODE("orderCode", false, Order::getOrderCode),
+    CUSTOMER_NAME("customerName", true, Order::getCustomerName),
+    CUSTOMER_EMAIL("customerEmail", true, Order::getCustomerEmail),
+    PRODUCT_NAME("productName", true, Order::getProductName),
+    QUANTITY("quantity", false, Order::getQuantity),
+    UNIT_PRICE("unitPrice", false, Order::getUnitPrice),
+    TOTAL_AMOUNT("totalAmount", false, Order::getTotalAmount),
+    STATUS("status", true, Order::getStatus),
+    ORDER_DATE("orderDate", false, Order::getOrderDate),
+    CATEGORY("category", true, Order::getCategory),
+    REGION("region", true, Order::getRegion);
+
+    private final String name;
+    private final boolean repetitive;
+    private final Function<Order, Object> getter;
+
+    OrderField(String name, boolean repetitive, Function<Order, Object> getter) {
+        this.name = name;
+        this.repetitive = repetitive;
+        this.getter = getter;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** Whether values typically recur across orders, making the field worth dictionary-encoding. */
+    public boolean isRepetitive() {
+        return repetitive;
+    }
+
+    public Object valueOf(Order order) {
+        return getter.apply(order);
+    }
+
+    /**
+     * @param names comma-separated attribute names, e.g. "orderCode,status,totalAmount"; blank for all
+     * @throws IllegalArgumentException for an unknown name
+     */
+    public static List<OrderField> parseList(String names) {
+        if (names == null || names.isBlank()) {
+            return List.of(values());
+        }
+        List<OrderField> fields = new ArrayList<>();
+        for (String name : names.split(",")) {
+            OrderField field = byName(name.trim());
+            if (!fields.contains(field)) {
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+
+    private static OrderField byName(String name) {
+        for (OrderField field : values()) {
+            if (field.name.equalsIgnoreCase(name)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown order field: " + name);
+    }
+}
@@ -0,0 +1,93 @@
+package com.splitwise.orderanalytics.dto;
+
+import com.splitwise.orderanalytics.entity.OrderStatus;
+
+import java.time.LocalDateTime;
+
+public class OrderFilter {
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+    private OrderStatus status;
+    private String productName;
+    private String customerName;
+    private String category;
+    private String region;
+
+    public OrderFilter() {}
+
+    public static OrderFilter of(String startDate, String endDate, String status,
+            String productName, String customerName,
+            String category, String region) {
+        OrderFilter filter = new OrderFilter();
+        filter.startDate = hasText(startDate) ? LocalDateTime.parse(startDate + "T00:00:00") : null;
+        filter.endDate = hasText(endDate) ? LocalDateTime.parse(endDate + "T23:59:59") : null;
+
+        if (hasText(status)) {
+            try {
+                filter.status = OrderStatus.valueOf(status.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                // Invalid status, ignore filter
+            }
+        }
+
+        filter.productName = hasText(productName) ? productName : null;
+        filter.customerName = hasText(customerName) ? customerName : null;
+        filter.category = hasText(category) ? category : null;
+        filter.region = hasText(region) ? region : null;
+        return filter;
+    }
+
+    /** Same filter without the four text conditions, for callers that resolve those another way. */
+    public OrderFilter withoutText() {
+        OrderFilter filter = new OrderFilter();
+        filter.startDate = startDate;
+        filter.endDate = endDate;
+        filter.status = status;
+        return filter;
+    }
+
+    public String getText(GroupDimension dimension) {
+        switch (dimension) {
+            case PRODUCT:
+                return productName;
+            case CUSTOMER:
+                return customerName;
+            case CATEGORY:
+                return category;
+            default:
+                return region;
+        }
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isEmpty();
+    }
+
+    public LocalDateTime getStartDate() {
+        return startDate;
+    }
+
+    public LocalDateTime getEndDate() {
+        return endDate;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+}
@@ -0,0 +1,47 @@
+package com.splitwise.orderanalytics.dto;
+
+import com.splitwise.orderanalytics.entity.Order;
+
+import java.util.List;
+
+public class OrderPage {
+    private List<Order> orders;
+    private String nextCursor;
+    // Text conditions the search index could not resolve, matched with LIKE: accents must match
+    private List<GroupDimension> literalMatches = List.of();
+
+    public OrderPage() {}
+
+    public OrderPage(List<Order> orders, String nextCursor) {
+        this.orders = orders;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Order> getOrders() {
+        return orders;
+    }
+
+    public void setOrders(List<Order> orders) {
+        this.orders = orders;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public List<GroupDimension> getLiteralMatches() {
+        return literalMatches;
+    }
+
+    public void setLiteralMatches(List<GroupDimension> literalMatches) {
+        this.literalMatches = literalMatches;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
@@ -14,6 +14,10 @@ public class OrderStatistics {
     private List<TopCustomer> topCustomers;
     private List<DailyRevenue> dailyRevenue;
     private List<MonthlyRevenue> monthlyRevenue;
+    private List<TopGroup> topGroups;
+    private boolean approximate;
+    private Long distinctCustomers;
+    private Long distinctProducts;
 
     public OrderStatistics() {}
 
@@ -104,9 +108,44 @@ public class OrderStatistics {
         this.monthlyRevenue = monthlyRevenue;
     }
 
+    public List<TopGroup> getTopGroups() {
+        return topGroups;
+    }
+
+    public void setTopGroups(List<TopGroup> topGroups) {
+        this.topGroups = topGroups;
+    }
+
+    /** True when the top lists are sketch estimates; each entry then carries its maxError. */
+    public boolean isApproximate() {
+        return approximate;
+    }
+
+    public void setApproximate(boolean approximate) {
+        this.approximate = approximate;
+    }
+
+    /** HyperLogLog estimate (~1.6% error); null when the distinct-count sketches are disabled. */
+    public Long getDistinctCustomers() {
+        return distinctCustomers;
+    }
+
+    public void setDistinctCustomers(Long distinctCustomers) {
+        this.distinctCustomers = distinctCustomers;
+    }
+
+    public Long getDistinctProducts() {
+        return distinctProducts;
+    }
+
+    public void setDistinctProducts(Long distinctProducts) {
+        this.distinctProducts = distinctProducts;
+    }
+
     public static class TopProduct {
         private String productName;
         private Long totalQuantity;
+        private Long maxError;
 
         public TopProduct() {}
 
@@ -130,11 +169,20 @@ public class OrderStatistics {
         public void setTotalQuantity(Long totalQuantity) {
             this.totalQuantity = totalQuantity;
         }
+
+        public Long getMaxError() {
+            return maxError;
+        }
+
+        public void setMaxError(Long maxError) {
+            this.maxError = maxError;
+        }
     }
 
     public static class TopCustomer {
         private String customerName;
         private BigDecimal totalSpent;
+        private BigDecimal maxError;
 
         public TopCustomer() {}
 
@@ -158,6 +206,14 @@ public class OrderStatistics {
         public void setTotalSpent(BigDecimal totalSpent) {
             this.totalSpent = totalSpent;
         }
+
+        public BigDecimal getMaxError() {
+            return maxError;
+        }
+
+        public void setMaxError(BigDecimal maxError) {
+            this.maxError = maxError;
+        }
     }
 
     public static class DailyRevenue {
@@ -215,4 +271,61 @@ public class OrderStatistics {
             this.totalRevenue = totalRevenue;
         }
     }
+
+    public static class TopGroup {
+        private String name;
+        private Long orderCount;
+        private Long totalQuantity;
+        private BigDecimal totalRevenue;
+        private BigDecimal maxError;
+
+        public TopGroup() {}
+
+        public TopGroup(String name, Long orderCount, Long totalQuantity, BigDecimal totalRevenue) {
+            this.name = name;
+            this.orderCount = orderCount;
+            this.totalQuantity = totalQuantity;
+            this.totalRevenue = totalRevenue;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Long getOrderCount() {
+            return orderCount;
+        }
+
+        public void setOrderCount(Long orderCount) {
+            this.orderCount = orderCount;
+        }
+
+        public Long getTotalQuantity() {
+            return totalQuantity;
+        }
+
+        public void setTotalQuantity(Long totalQuantity) {
+            this.totalQuantity = totalQuantity;
+        }
+
+        public BigDecimal getTotalRevenue() {
+            return totalRevenue;
+        }
+
+        public void setTotalRevenue(BigDecimal totalRevenue) {
+            this.totalRevenue = totalRevenue;
+        }
+
+        public BigDecimal getMaxError() {
+            return maxError;
+        }
+
+        public void setMaxError(BigDecimal maxError) {
+            this.maxError = maxError;
+        }
+    }
 }
@@ -0,0 +1,13 @@
+package com.splitwise.orderanalytics.dto;
+
+import java.util.Locale;
+
+/** How an upload's rows are written: always appended, or merged into existing orders by order code. */
+public enum UploadMode {
+    INSERT,
+    UPSERT;
+
+    public static UploadMode parse(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
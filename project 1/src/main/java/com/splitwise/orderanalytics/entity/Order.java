@@ -5,7 +5,13 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_order_date", columnList = "orderDate"),
+        @Index(name = "idx_orders_status_order_date", columnList = "status, orderDate"),
+        @Index(name = "idx_orders_product_name", columnList = "productName"),
+        @Index(name = "idx_orders_customer_name", columnList = "customerName"),
+        @Index(name = "idx_orders_order_code", columnList = "orderCode")
+})
 public class Order {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -12,15 +12,25 @@ public class Product {
     @Column(nullable = false, unique = true)
     private String name;
 
-    @Column(nullable = false)
+    // Stock as of the last ledger compaction, see ProductStockService
+    @Column(name = "stock_quantity", nullable = false)
+    private Integer stockSnapshot;
+
+    // Snapshot plus the movements not yet compacted, when filled in for display
+    @Transient
     private Integer stockQuantity;
 
+    // Bumped by compactions and stock counts; the default fills the column on existing tables
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long version;
+
     public Product() {
     }
 
     public Product(String name, Integer stockQuantity) {
         this.name = name;
-        this.stockQuantity = stockQuantity;
+        this.stockSnapshot = stockQuantity;
     }
 
     public Long getId() {
@@ -40,10 +50,25 @@ public class Product {
     }
 
     public Integer getStockQuantity() {
-        return stockQuantity;
+        return stockQuantity != null ? stockQuantity : stockSnapshot;
     }
 
+    /**
+     * Opening stock of a new product. Once saved, stock only changes through ProductStockService
+     * and this just sets the value reported.
+     */
     public void setStockQuantity(Integer stockQuantity) {
+        if (id == null) {
+            this.stockSnapshot = stockQuantity;
+        }
         this.stockQuantity = stockQuantity;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,47 @@
+package com.splitwise.orderanalytics.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Staging rows for upsert uploads. Mapped so the schema tool creates the table; rows are only
+ * written and merged over JDBC (see OrderJdbcRepository.mergeStaged) and deleted once applied.
+ */
+@Entity
+@Table(name = "orders_staging", indexes = @Index(name = "idx_orders_staging_batch", columnList = "batchId, orderCode"))
+public class StagedOrder {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 36)
+    private String batchId;
+
+    @Column(nullable = false)
+    private String orderCode;
+
+    private String customerName;
+    private String customerEmail;
+    private String productName;
+    private Integer quantity;
+
+    @Column(precision = 19, scale = 2)
+    private BigDecimal unitPrice;
+
+    @Column(precision = 19, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(length = 20)
+    private String status;
+
+    private LocalDateTime orderDate;
+    private String category;
+    private String region;
+
+    public StagedOrder() {}
+
+    public Long getId() { return id; }
+    public String getBatchId() { return batchId; }
+    public String getOrderCode() { return orderCode; }
+}
@@ -0,0 +1,69 @@
+package com.splitwise.orderanalytics.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One change to a product's stock. Rows are only ever appended (see StockMovementJdbcRepository);
+ * compaction folds them into {@code products.stock_quantity} and sets {@code applied}, nothing else
+ * about a movement changes once written.
+ */
+@Entity
+@Table(name = "stock_movements", indexes = {
+        @Index(name = "idx_stock_movements_applied", columnList = "applied, productId"),
+        @Index(name = "idx_stock_movements_product_time", columnList = "productId, createdAt")})
+public class StockMovement {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Integer delta;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private StockMovementReason reason;
+
+    // Set when the movement comes from editing a single order
+    private Long orderId;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private Boolean applied;
+
+    public StockMovement() {}
+
+    public StockMovement(Long productId, Integer delta, StockMovementReason reason, Long orderId) {
+        this.productId = productId;
+        this.delta = delta;
+        this.reason = reason;
+        this.orderId = orderId;
+        this.applied = false;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public Integer getDelta() { return delta; }
+    public void setDelta(Integer delta) { this.delta = delta; }
+
+    public StockMovementReason getReason() { return reason; }
+    public void setReason(StockMovementReason reason) { this.reason = reason; }
+
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public Boolean getApplied() { return applied; }
+    public void setApplied(Boolean applied) { this.applied = applied; }
+}
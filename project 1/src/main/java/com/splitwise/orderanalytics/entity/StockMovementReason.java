@@ -0,0 +1,18 @@
+package com.splitwise.orderanalytics.entity;
+
+public enum StockMovementReason {
+    UPLOAD("Tải lên đơn hàng"),
+    ORDER_UPDATE("Cập nhật đơn hàng"),
+    ADJUSTMENT("Điều chỉnh tồn kho"),
+    STOCK_COUNT("Kiểm kê tồn kho");
+
+    private final String displayName;
+
+    StockMovementReason(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,45 @@
+package com.splitwise.orderanalytics.repository;
+
+import com.splitwise.orderanalytics.entity.Order;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Repository;
+
+import java.util.stream.Stream;
+
+/**
+ * Streams filtered orders for exports. Spring Data's fluent stream() cannot set a fetch size, so
+ * the query is built here to pass the JDBC fetch size and Hibernate's read-only hint.
+ */
+@Repository
+public class OrderExportRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Must be consumed inside a transaction and closed afterwards. Callers should
+     * {@link #detach} each order once written so the persistence context stays empty.
+     */
+    public Stream<Order> stream(Specification<Order> spec, int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Order> query = cb.createQuery(Order.class);
+        Root<Order> root = query.from(Order.class);
+        query.where(spec.toPredicate(root, query, cb));
+        query.orderBy(cb.desc(root.get("orderDate")), cb.desc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    public void detach(Order order) {
+        entityManager.detach(order);
+    }
+}
@@ -0,0 +1,180 @@
+package com.splitwise.orderanalytics.repository;
+
+import com.splitwise.orderanalytics.dto.GroupDimension;
+import com.splitwise.orderanalytics.dto.OrderStatistics;
+import com.splitwise.orderanalytics.entity.Order;
+import com.splitwise.orderanalytics.entity.OrderStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Plain JDBC access for bulk paths. Order ids are IDENTITY columns, which stop Hibernate from
+ * batching inserts, so uploads insert here with multi-row statements instead.
+ */
+@Repository
+public class OrderJdbcRepository {
+
+    private static final String ORDER_COLUMNS = "order_code, customer_name, customer_email, product_name, "
+            + "quantity, unit_price, total_amount, status, order_date, category, region";
+
+    // A MERGE that never matches inserts every row, and unlike INSERT its OUTPUT may name source
+    // columns, so each generated id comes back with the index of the row it belongs to
+    private static final String INSERT_SQL_HEAD = "MERGE INTO orders AS o USING (VALUES ";
+    private static final String INSERT_SQL_ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_SQL_TAIL = ") AS s (row_index, " + ORDER_COLUMNS + ") ON 1 = 0 "
+            + "WHEN NOT MATCHED THEN INSERT (" + ORDER_COLUMNS + ") VALUES (s.order_code, s.customer_name, "
+            + "s.customer_email, s.product_name, s.quantity, s.unit_price, s.total_amount, s.status, "
+            + "s.order_date, s.category, s.region) OUTPUT s.row_index, INSERTED.id;";
+
+    // Twelve parameters a row stays under SQL Server's 2,100 per statement
+    private static final int INSERT_ROWS_PER_STATEMENT = 170;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static final String SCAN_SQL = "SELECT id, order_date, status, quantity, total_amount, "
+            + "product_name, customer_name, customer_email, category, region FROM orders ORDER BY id";
+
+    private static final int SCAN_FETCH_SIZE = 10000;
+
+    private static final String STAGE_SQL = "INSERT INTO orders_staging (batch_id, order_code, customer_name, "
+            + "customer_email, product_name, quantity, unit_price, total_amount, status, order_date, category, region) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String FIND_BY_STAGED_CODES_SQL = "SELECT id, order_code, customer_name, customer_email, "
+            + "product_name, quantity, unit_price, total_amount, status, order_date, category, region FROM orders "
+            + "%s WHERE order_code IN (SELECT order_code FROM orders_staging WHERE batch_id = ?)";
+
+    // EXCEPT compares NULLs as equal, so unchanged rows are left alone without per-column null checks
+    private static final String MERGE_SQL = "MERGE INTO orders AS o "
+            + "USING (SELECT order_code, customer_name, customer_email, product_name, quantity, unit_price, "
+            + "total_amount, status, order_date, category, region FROM orders_staging WHERE batch_id = ?) AS s "
+            + "ON o.order_code = s.order_code "
+            + "WHEN MATCHED AND EXISTS (SELECT s.customer_name, s.customer_email, s.product_name, s.quantity, "
+            + "s.unit_price, s.total_amount, s.status, s.order_date, s.category, s.region "
+            + "EXCEPT SELECT o.customer_name, o.customer_email, o.product_name, o.quantity, "
+            + "o.unit_price, o.total_amount, o.status, o.order_date, o.category, o.region) THEN "
+            + "UPDATE SET customer_name = s.customer_name, customer_email = s.customer_email, "
+            + "product_name = s.product_name, quantity = s.quantity, unit_price = s.unit_price, "
+            + "total_amount = s.total_amount, status = s.status, order_date = s.order_date, "
+            + "category = s.category, region = s.region "
+            + "WHEN NOT MATCHED THEN INSERT (order_code, customer_name, customer_email, product_name, quantity, "
+            + "unit_price, total_amount, status, order_date, category, region) "
+            + "VALUES (s.order_code, s.customer_name, s.customer_email, s.product_name, s.quantity, "
+            + "s.unit_price, s.total_amount, s.status, s.order_date, s.category, s.region);";
+
+    /**
+     * Inserts the orders and sets their generated ids, read from the inserting statements
+     * themselves, so other writers of {@code orders} at the same time cannot mix them up.
+     */
+    public void batchInsert(List<Order> orders) {
+        for (int from = 0; from < orders.size(); from += INSERT_ROWS_PER_STATEMENT) {
+            List<Order> rows = orders.subList(from, Math.min(from + INSERT_ROWS_PER_STATEMENT, orders.size()));
+            String sql = INSERT_SQL_HEAD + String.join(", ", Collections.nCopies(rows.size(), INSERT_SQL_ROW))
+                    + INSERT_SQL_TAIL;
+            jdbcTemplate.query(sql, ps -> {
+                for (int i = 0; i < rows.size(); i++) {
+                    ps.setInt(i * 12 + 1, i);
+                    bindOrder(ps, i * 12 + 2, rows.get(i));
+                }
+            }, (RowCallbackHandler) rs -> rows.get(rs.getInt(1)).setId(rs.getLong(2)));
+        }
+    }
+
+    /** Writes the orders to the staging table under {@code batchId}, for {@link #mergeStaged}. */
+    public void stage(String batchId, List<Order> orders) {
+        jdbcTemplate.batchUpdate(STAGE_SQL, orders, orders.size(), (ps, order) -> {
+            ps.setString(1, batchId);
+            bindOrder(ps, 2, order);
+        });
+    }
+
+    /** Current rows of {@code orders} whose order code is staged under {@code batchId}. */
+    public List<Order> findByStagedCodes(String batchId) {
+        return findByStagedCodes(batchId, "");
+    }
+
+    /**
+     * As {@link #findByStagedCodes}, and holds update locks on those codes, present or not, until
+     * the transaction ends, so concurrent upserts of the same codes apply one after the other.
+     */
+    public List<Order> lockByStagedCodes(String batchId) {
+        return findByStagedCodes(batchId, "WITH (UPDLOCK, HOLDLOCK)");
+    }
+
+    private List<Order> findByStagedCodes(String batchId, String hints) {
+        return jdbcTemplate.query(String.format(FIND_BY_STAGED_CODES_SQL, hints), (rs, rowNum) -> {
+            Order order = new Order(rs.getString("order_code"), rs.getString("customer_name"),
+                    rs.getString("customer_email"), rs.getString("product_name"), rs.getInt("quantity"),
+                    rs.getBigDecimal("unit_price"), rs.getBigDecimal("total_amount"),
+                    OrderStatus.valueOf(rs.getString("status")), rs.getTimestamp("order_date").toLocalDateTime(),
+                    rs.getString("category"), rs.getString("region"));
+            order.setId(rs.getLong("id"));
+            return order;
+        }, batchId);
+    }
+
+    /**
+     * Applies a staged batch with one MERGE on order_code: new codes are inserted, and existing
+     * rows are updated only where some column differs. Order codes must be unique within the batch.
+     *
+     * @return rows inserted or updated
+     */
+    public int mergeStaged(String batchId) {
+        return jdbcTemplate.update(MERGE_SQL, batchId);
+    }
+
+    public void clearStaged(String batchId) {
+        jdbcTemplate.update("DELETE FROM orders_staging WHERE batch_id = ?", batchId);
+    }
+
+    /** Top groups of a dimension by revenue, for when the in-memory column store is not loaded. */
+    public List<OrderStatistics.TopGroup> findTopGroups(GroupDimension dimension, int limit) {
+        String column = dimension.getColumn();
+        String sql = "SELECT TOP (?) " + column + ", COUNT(*), SUM(quantity), SUM(total_amount) FROM orders "
+                + "GROUP BY " + column + " ORDER BY SUM(total_amount) DESC";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new OrderStatistics.TopGroup(
+                rs.getString(1), rs.getLong(2), rs.getLong(3), rs.getBigDecimal(4)), limit);
+    }
+
+    /** Streams the analytics columns of every order in id order without materializing entities. */
+    public void scanAnalyticsColumns(RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(SCAN_SQL);
+            ps.setFetchSize(SCAN_FETCH_SIZE);
+            return ps;
+        }, handler);
+    }
+
+    // Binds the eleven order columns in ORDER_COLUMNS order, starting at parameter {@code first}
+    private static void bindOrder(PreparedStatement ps, int first, Order order) throws SQLException {
+        ps.setString(first, order.getOrderCode());
+        ps.setString(first + 1, order.getCustomerName());
+        ps.setString(first + 2, order.getCustomerEmail());
+        ps.setString(first + 3, order.getProductName());
+        ps.setInt(first + 4, order.getQuantity());
+        ps.setBigDecimal(first + 5, order.getUnitPrice());
+        ps.setBigDecimal(first + 6, order.getTotalAmount());
+        ps.setString(first + 7, order.getStatus().name());
+        ps.setTimestamp(first + 8, Timestamp.valueOf(order.getOrderDate()));
+        if (order.getCategory() != null) {
+            ps.setString(first + 9, order.getCategory());
+        } else {
+            ps.setNull(first + 9, Types.NVARCHAR);
+        }
+        if (order.getRegion() != null) {
+            ps.setString(first + 10, order.getRegion());
+        } else {
+            ps.setNull(first + 10, Types.NVARCHAR);
+        }
+    }
+}
@@ -2,7 +2,9 @@ package com.splitwise.orderanalytics.repository;
 
 import com.splitwise.orderanalytics.entity.Order;
 import com.splitwise.orderanalytics.entity.OrderStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -12,7 +14,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
 
     List<Order> findByStatus(OrderStatus status);
     
@@ -32,17 +34,14 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT SUM(o.totalAmount) FROM Order o WHERE o.status = :status")
     BigDecimal sumTotalAmountByStatus(@Param("status") OrderStatus status);
     
+    @Query("SELECT o.status, COUNT(o), SUM(o.totalAmount) FROM Order o GROUP BY o.status")
+    List<Object[]> summarizeByStatus();
+    
     @Query("SELECT o.productName, SUM(o.quantity) as totalQuantity FROM Order o GROUP BY o.productName ORDER BY totalQuantity DESC")
-    List<Object[]> findTopSellingProducts();
+    List<Object[]> findTopSellingProducts(Pageable pageable);
     
     @Query("SELECT o.customerName, SUM(o.totalAmount) as totalSpent FROM Order o GROUP BY o.customerName ORDER BY totalSpent DESC")
-    List<Object[]> findTopCustomersBySpending();
-    
-    @Query("SELECT FORMATDATETIME(o.orderDate, 'yyyy-MM-dd'), SUM(o.totalAmount) FROM Order o WHERE o.orderDate BETWEEN :startDate AND :endDate GROUP BY FORMATDATETIME(o.orderDate, 'yyyy-MM-dd') ORDER BY FORMATDATETIME(o.orderDate, 'yyyy-MM-dd')")
-    List<Object[]> findDailyRevenue(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
-    
-    @Query("SELECT YEAR(o.orderDate), MONTH(o.orderDate), SUM(o.totalAmount) FROM Order o WHERE o.orderDate BETWEEN :startDate AND :endDate GROUP BY YEAR(o.orderDate), MONTH(o.orderDate) ORDER BY YEAR(o.orderDate), MONTH(o.orderDate)")
-    List<Object[]> findMonthlyRevenue(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    List<Object[]> findTopCustomersBySpending(Pageable pageable);
     
     @Query("SELECT COUNT(o) FROM Order o")
     Long getTotalOrders();
@@ -0,0 +1,90 @@
+package com.splitwise.orderanalytics.repository;
+
+import com.splitwise.orderanalytics.dto.GroupDimension;
+import com.splitwise.orderanalytics.dto.OrderCursor;
+import com.splitwise.orderanalytics.dto.OrderFilter;
+import com.splitwise.orderanalytics.entity.Order;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public final class OrderSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    /** Newest first; the id tiebreaker makes the order total so keyset paging never skips rows. */
+    public static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("orderDate"), Sort.Order.desc("id"));
+
+    private OrderSpecifications() {}
+
+    public static Specification<Order> matching(OrderFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (filter.getStartDate() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("orderDate"), filter.getStartDate()));
+            }
+            if (filter.getEndDate() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("orderDate"), filter.getEndDate()));
+            }
+            if (filter.getStatus() != null) {
+                predicates.add(cb.equal(root.get("status"), filter.getStatus()));
+            }
+            if (filter.getProductName() != null) {
+                predicates.add(cb.like(cb.lower(root.get("productName")),
+                        containsPattern(filter.getProductName()), LIKE_ESCAPE));
+            }
+            if (filter.getCustomerName() != null) {
+                predicates.add(cb.like(cb.lower(root.get("customerName")),
+                        containsPattern(filter.getCustomerName()), LIKE_ESCAPE));
+            }
+            if (filter.getCategory() != null) {
+                predicates.add(cb.like(cb.lower(root.get("category")),
+                        containsPattern(filter.getCategory()), LIKE_ESCAPE));
+            }
+            if (filter.getRegion() != null) {
+                predicates.add(cb.like(cb.lower(root.get("region")),
+                        containsPattern(filter.getRegion()), LIKE_ESCAPE));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Rows strictly after the cursor in {@link #NEWEST_FIRST} order:
+     * orderDate &lt; d OR (orderDate = d AND id &lt; i).
+     */
+    public static Specification<Order> after(OrderCursor cursor) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("orderDate"), cursor.getOrderDate()),
+                cb.and(cb.equal(root.get("orderDate"), cursor.getOrderDate()),
+                        cb.lessThan(root.get("id"), cursor.getId())));
+    }
+
+    /** Case-insensitive substring match on one text column; what {@link #matching} uses. */
+    public static Specification<Order> contains(GroupDimension dimension, String value) {
+        return (root, query, cb) -> cb.like(cb.lower(root.get(dimension.getAttribute())),
+                containsPattern(value), LIKE_ESCAPE);
+    }
+
+    public static Specification<Order> valueIn(GroupDimension dimension, Collection<String> values) {
+        return (root, query, cb) -> root.get(dimension.getAttribute()).in(values);
+    }
+
+    public static Specification<Order> idIn(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    private static String containsPattern(String value) {
+        String escaped = value.toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
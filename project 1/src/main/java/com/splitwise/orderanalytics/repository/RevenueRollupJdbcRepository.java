@@ -0,0 +1,100 @@
+package com.splitwise.orderanalytics.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+public class RevenueRollupJdbcRepository {
+
+    private static final String UPDATE_SQL = "UPDATE revenue_rollup SET order_count = order_count + ?, revenue = revenue + ? "
+            + "WHERE revenue_date = ? AND status = ? AND category = ? AND region = ?";
+
+    private static final String INSERT_SQL = "INSERT INTO revenue_rollup "
+            + "(revenue_date, status, category, region, order_count, revenue) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String DELETE_ALL_SQL = "DELETE FROM revenue_rollup";
+
+    private static final String REBUILD_SQL = "INSERT INTO revenue_rollup "
+            + "(revenue_date, status, category, region, order_count, revenue) "
+            + "SELECT CAST(order_date AS DATE), status, COALESCE(category, ''), COALESCE(region, ''), COUNT(*), SUM(total_amount) "
+            + "FROM orders "
+            + "GROUP BY CAST(order_date AS DATE), status, COALESCE(category, ''), COALESCE(region, '')";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Adds each delta to its existing row in one batch and returns the deltas that matched no
+     * row, so the caller can insert them.
+     */
+    public List<Delta> addToExisting(List<Delta> deltas) {
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, deltas, deltas.size(), (ps, delta) -> {
+            ps.setLong(1, delta.orderCount);
+            ps.setBigDecimal(2, delta.revenue);
+            ps.setDate(3, Date.valueOf(delta.revenueDate));
+            ps.setString(4, delta.status);
+            ps.setString(5, delta.category);
+            ps.setString(6, delta.region);
+        });
+
+        List<Delta> missing = new ArrayList<>();
+        int i = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count == 0) {
+                    missing.add(deltas.get(i));
+                }
+                i++;
+            }
+        }
+        return missing;
+    }
+
+    public void insertEmpty(List<Delta> keys) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, keys, keys.size(), (ps, key) -> {
+            ps.setDate(1, Date.valueOf(key.revenueDate));
+            ps.setString(2, key.status);
+            ps.setString(3, key.category);
+            ps.setString(4, key.region);
+            ps.setLong(5, 0);
+            ps.setBigDecimal(6, BigDecimal.ZERO);
+        });
+    }
+
+    public int rebuild() {
+        jdbcTemplate.update(DELETE_ALL_SQL);
+        return jdbcTemplate.update(REBUILD_SQL);
+    }
+
+    public static class Delta {
+        private final LocalDate revenueDate;
+        private final String status;
+        private final String category;
+        private final String region;
+        private long orderCount;
+        private BigDecimal revenue = BigDecimal.ZERO;
+
+        public Delta(LocalDate revenueDate, String status, String category, String region) {
+            this.revenueDate = revenueDate;
+            this.status = status;
+            this.category = category;
+            this.region = region;
+        }
+
+        public void add(long orderCount, BigDecimal revenue) {
+            this.orderCount += orderCount;
+            this.revenue = this.revenue.add(revenue);
+        }
+
+        public boolean isZero() {
+            return orderCount == 0 && revenue.signum() == 0;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.splitwise.orderanalytics.repository;
+
+import com.splitwise.orderanalytics.entity.RevenueRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface RevenueRollupRepository extends JpaRepository<RevenueRollup, Long> {
+
+    @Query("SELECT r.revenueDate, SUM(r.revenue) FROM RevenueRollup r WHERE r.revenueDate BETWEEN :startDate AND :endDate GROUP BY r.revenueDate")
+    List<Object[]> sumRevenueByDate(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+}
@@ -0,0 +1,29 @@
+package com.splitwise.orderanalytics.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts SQL statements per thread. Hibernate reports each statement it prepares through
+ * {@link #inspect}, and {@link CountingJdbcTemplate} reports the ones issued over JDBC, so a
+ * caller can read {@link #current()} before and after a call to see how many statements it ran.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    public static void increment() {
+        COUNT.get()[0]++;
+    }
+
+    public static long current() {
+        return COUNT.get()[0];
+    }
+
+    @Override
+    public String inspect(String sql) {
+        increment();
+        return sql;
+    }
+}
@@ -0,0 +1,77 @@
+package com.splitwise.orderanalytics.repository;
+
+import com.splitwise.orderanalytics.entity.StockMovement;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Appends to and compacts the stock ledger. Appends are plain inserts, so writers of the same
+ * product never wait on each other's row locks.
+ */
+@Repository
+public class StockMovementJdbcRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO stock_movements "
+            + "(product_id, delta, reason, order_id, created_at, applied) VALUES (?, ?, ?, ?, ?, 0)";
+
+    private static final String UNAPPLIED_PRODUCTS_SQL = "SELECT DISTINCT TOP (?) product_id "
+            + "FROM stock_movements WITH (READPAST) WHERE applied = 0";
+
+    // One statement both picks and flags the rows, so two compactions can never fold the same
+    // movement; READPAST skips rows another compaction has already claimed but not committed
+    private static final String CLAIM_UNAPPLIED_SQL = "UPDATE TOP (?) stock_movements WITH (ROWLOCK, READPAST) "
+            + "SET applied = 1 OUTPUT INSERTED.id, INSERTED.product_id, INSERTED.delta "
+            + "WHERE applied = 0 AND product_id IN (%s)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void append(List<StockMovement> movements) {
+        if (movements.isEmpty())
+            return;
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, movements, movements.size(), (ps, movement) -> {
+            ps.setLong(1, movement.getProductId());
+            ps.setInt(2, movement.getDelta());
+            ps.setString(3, movement.getReason().name());
+            if (movement.getOrderId() != null) {
+                ps.setLong(4, movement.getOrderId());
+            } else {
+                ps.setNull(4, Types.BIGINT);
+            }
+            ps.setTimestamp(5, Timestamp.valueOf(movement.getCreatedAt()));
+        });
+    }
+
+    /** Up to {@code limit} products with movements not yet folded into their snapshots. */
+    public List<Long> unappliedProductIds(int limit) {
+        return jdbcTemplate.queryForList(UNAPPLIED_PRODUCTS_SQL, Long.class, limit);
+    }
+
+    /**
+     * Marks up to {@code limit} committed movements of the given products as applied and returns
+     * them. The caller holds the products' locks and folds the movements into their snapshots in
+     * the same transaction.
+     */
+    public List<StockMovement> claimUnapplied(int limit, Collection<Long> productIds) {
+        List<Object> args = new ArrayList<>(productIds.size() + 1);
+        args.add(limit);
+        args.addAll(productIds);
+        String placeholders = String.join(", ", Collections.nCopies(productIds.size(), "?"));
+        return jdbcTemplate.query(String.format(CLAIM_UNAPPLIED_SQL, placeholders), (rs, rowNum) -> {
+            StockMovement movement = new StockMovement();
+            movement.setId(rs.getLong(1));
+            movement.setProductId(rs.getLong(2));
+            movement.setDelta(rs.getInt(3));
+            return movement;
+        }, args.toArray());
+    }
+}
@@ -0,0 +1,13 @@
+package com.splitwise.orderanalytics.repository;
+
+import com.splitwise.orderanalytics.entity.StockMovement;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+    List<StockMovement> findByProductIdOrderByIdDesc(Long productId, Pageable pageable);
+}
@@ -0,0 +1,30 @@
+package com.splitwise.orderanalytics.service;
+
+/** What persisting one chunk did to the orders table. Plain inserts report every row as inserted. */
+public class ChunkOutcome {
+    private final int inserted;
+    private final int updated;
+    private final int unchanged;
+
+    public ChunkOutcome(int inserted, int updated, int unchanged) {
+        this.inserted = inserted;
+        this.updated = updated;
+        this.unchanged = unchanged;
+    }
+
+    public static ChunkOutcome inserted(int rows) {
+        return new ChunkOutcome(rows, 0, 0);
+    }
+
+    public int getInserted() {
+        return inserted;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public int getUnchanged() {
+        return unchanged;
+    }
+}
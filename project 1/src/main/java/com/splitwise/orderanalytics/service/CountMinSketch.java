@@ -0,0 +1,57 @@
+package com.splitwise.orderanalytics.service;
+
+/**
+ * Count-Min sketch of weights per key: depth rows of width counters, each row indexed by its own
+ * hash. An estimate never under-counts and, for total weight W, over-counts by at most
+ * (e / width) * W with probability at least 1 - e^-depth.
+ */
+class CountMinSketch {
+
+    private final int depth;
+    private final int mask;
+    private final long[][] table;
+
+    /**
+     * @param width rounded up to a power of two
+     */
+    CountMinSketch(int width, int depth) {
+        int size = Integer.highestOneBit(Math.max(2, width - 1)) << 1;
+        this.depth = depth;
+        this.mask = size - 1;
+        this.table = new long[depth][size];
+    }
+
+    void add(String key, long weight) {
+        int h1 = mix(key.hashCode());
+        int h2 = mix(h1 ^ 0x5bd1e995) | 1;
+        for (int row = 0; row < depth; row++) {
+            table[row][(h1 + row * h2) & mask] += weight;
+        }
+    }
+
+    long estimate(String key) {
+        int h1 = mix(key.hashCode());
+        int h2 = mix(h1 ^ 0x5bd1e995) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, table[row][(h1 + row * h2) & mask]);
+        }
+        return estimate;
+    }
+
+    int getWidth() {
+        return mask + 1;
+    }
+
+    int getDepth() {
+        return depth;
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,191 @@
+package com.splitwise.orderanalytics.service;
+
+import com.splitwise.orderanalytics.entity.Order;
+import com.splitwise.orderanalytics.entity.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Resolves a CSV header row once per file into a fixed column index per {@link Order} field, so
+ * decoding a data row is plain array indexing plus the typed parsers of the file's
+ * {@link RowFormat}. Decoding never throws: a value that cannot be read rejects the row.
+ */
+public class CsvRowDecoder {
+
+    public enum Column {
+        ORDER_CODE(true, "orderCode", "Mã đơn hàng"),
+        CUSTOMER_NAME(true, "customerName", "Tên khách hàng"),
+        CUSTOMER_EMAIL(false, "customerEmail", "Email"),
+        PRODUCT_NAME(true, "productName", "Sản phẩm"),
+        QUANTITY(true, "quantity", "Số lượng"),
+        UNIT_PRICE(true, "unitPrice", "Đơn giá"),
+        TOTAL_AMOUNT(true, "totalAmount", "Tổng tiền"),
+        STATUS(true, "status", "Trạng thái"),
+        ORDER_DATE(false, "orderDate", "Ngày đặt hàng"),
+        CATEGORY(false, "category", "Danh mục"),
+        REGION(false, "region", "Khu vực");
+
+        private final boolean required;
+        private final String[] aliases;
+
+        Column(boolean required, String... aliases) {
+            this.required = required;
+            this.aliases = aliases;
+        }
+
+        public boolean isRequired() {
+            return required;
+        }
+    }
+
+    private static final int UNMAPPED = -1;
+
+    private final int[] indexes;
+    private final List<String> missingRequired;
+    private final List<String> warnings;
+    private final RowFormat format;
+
+    private CsvRowDecoder(int[] indexes, List<String> missingRequired, List<String> warnings, RowFormat format) {
+        this.indexes = indexes;
+        this.missingRequired = missingRequired;
+        this.warnings = warnings;
+        this.format = format;
+    }
+
+    /**
+     * Matches each field's aliases, in order, against the headers with a case-insensitive
+     * "contains" test; the first matching header wins, as the per-row lookup always did.
+     */
+    public static CsvRowDecoder compile(String[] headers) {
+        String[] normalized = new String[headers.length];
+        for (int i = 0; i < headers.length; i++) {
+            normalized[i] = headers[i] != null ? headers[i].trim().toLowerCase(Locale.ROOT) : null;
+        }
+
+        Column[] columns = Column.values();
+        int[] indexes = new int[columns.length];
+        boolean[] headerUsed = new boolean[headers.length];
+        List<String> missingRequired = new ArrayList<>();
+        List<String> warnings = new ArrayList<>();
+
+        for (Column column : columns) {
+            int index = UNMAPPED;
+            for (String alias : column.aliases) {
+                List<Integer> matches = findMatches(normalized, alias.toLowerCase(Locale.ROOT));
+                if (matches.isEmpty())
+                    continue;
+
+                index = matches.get(0);
+                if (matches.size() > 1) {
+                    warnings.add("Cột '" + column.aliases[0] + "' khớp nhiều tiêu đề "
+                            + headerNames(headers, matches) + ", dùng '" + headers[index] + "'");
+                }
+                break;
+            }
+
+            indexes[column.ordinal()] = index;
+            if (index == UNMAPPED) {
+                if (column.required) {
+                    missingRequired.add(column.aliases[0]);
+                } else {
+                    warnings.add("Không tìm thấy cột '" + column.aliases[0] + "'");
+                }
+            } else if (headerUsed[index]) {
+                warnings.add("Tiêu đề '" + headers[index] + "' được dùng cho nhiều cột");
+            } else {
+                headerUsed[index] = true;
+            }
+        }
+
+        for (int i = 0; i < headers.length; i++) {
+            if (!headerUsed[i] && normalized[i] != null && !normalized[i].isEmpty()) {
+                warnings.add("Bỏ qua cột không xác định '" + headers[i] + "'");
+            }
+        }
+
+        return new CsvRowDecoder(indexes, Collections.unmodifiableList(missingRequired),
+                Collections.unmodifiableList(warnings), null);
+    }
+
+    private static List<Integer> findMatches(String[] normalizedHeaders, String alias) {
+        List<Integer> matches = new ArrayList<>(1);
+        for (int i = 0; i < normalizedHeaders.length; i++) {
+            if (normalizedHeaders[i] != null && normalizedHeaders[i].contains(alias)) {
+                matches.add(i);
+            }
+        }
+        return matches;
+    }
+
+    private static String headerNames(String[] headers, List<Integer> indexes) {
+        return Arrays.toString(indexes.stream().map(i -> headers[i]).toArray());
+    }
+
+    public boolean isComplete() {
+        return missingRequired.isEmpty();
+    }
+
+    public List<String> getMissingRequired() {
+        return missingRequired;
+    }
+
+    public List<String> getWarnings() {
+        return warnings;
+    }
+
+    public int indexOf(Column column) {
+        return indexes[column.ordinal()];
+    }
+
+    /** Samples the mapped columns of the given rows to fix the file's value formats. */
+    public RowFormat sniff(List<String[]> rows, Function<String, OrderStatus> statusResolver) {
+        List<String> dates = new ArrayList<>(rows.size());
+        List<String> numbers = new ArrayList<>(rows.size() * 3);
+        List<String> statuses = new ArrayList<>(rows.size());
+        for (String[] row : rows) {
+            dates.add(text(row, Column.ORDER_DATE));
+            numbers.add(text(row, Column.QUANTITY));
+            numbers.add(text(row, Column.UNIT_PRICE));
+            numbers.add(text(row, Column.TOTAL_AMOUNT));
+            statuses.add(text(row, Column.STATUS));
+        }
+        return RowFormat.sniff(dates, numbers, statuses, statusResolver);
+    }
+
+    public CsvRowDecoder withFormat(RowFormat format) {
+        return new CsvRowDecoder(indexes, missingRequired, warnings, format);
+    }
+
+    /** Requires a format from {@link #withFormat}; returns null when the row cannot be decoded. */
+    public Order decode(String[] row) {
+        String orderCode = text(row, Column.ORDER_CODE);
+        String customerName = text(row, Column.CUSTOMER_NAME);
+        String productName = text(row, Column.PRODUCT_NAME);
+        Integer quantity = format.integer(text(row, Column.QUANTITY));
+        BigDecimal unitPrice = format.decimal(text(row, Column.UNIT_PRICE));
+        BigDecimal totalAmount = format.decimal(text(row, Column.TOTAL_AMOUNT));
+        OrderStatus status = format.status(text(row, Column.STATUS));
+
+        if (orderCode == null || customerName == null || productName == null ||
+                quantity == null || unitPrice == null || totalAmount == null || status == null) {
+            return null;
+        }
+
+        LocalDateTime orderDate = format.date(text(row, Column.ORDER_DATE));
+        return new Order(orderCode, customerName, text(row, Column.CUSTOMER_EMAIL), productName,
+                quantity, unitPrice, totalAmount, status, orderDate != null ? orderDate : LocalDateTime.now(),
+                text(row, Column.CATEGORY), text(row, Column.REGION));
+    }
+
+    private String text(String[] row, Column column) {
+        int index = indexes[column.ordinal()];
+        return index != UNMAPPED && index < row.length ? row[index] : null;
+    }
+}
@@ -0,0 +1,74 @@
+package com.splitwise.orderanalytics.service;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Clears the cached dashboard and statistics once a transaction that changed orders commits.
+ * The TTL in spring.cache.caffeine.spec only bounds how long a value computed concurrently
+ * with a commit can stay stale.
+ */
+@Service
+public class DashboardCacheService {
+
+    public static final String STATISTICS = "statistics";
+    public static final String DASHBOARD = "dashboard";
+
+    private static final List<String> CACHE_NAMES = List.of(STATISTICS, DASHBOARD);
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    // Runs after the other commit listeners so a reload never sees derived data from before the write
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrdersChanged(OrdersChangedEvent event) {
+        invalidate();
+    }
+
+    public void invalidate() {
+        for (String name : CACHE_NAMES) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        invalidations.incrementAndGet();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (String name : CACHE_NAMES) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache instanceof CaffeineCache caffeineCache) {
+                com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = caffeineCache.getNativeCache();
+                CacheStats stats = nativeCache.stats();
+
+                Map<String, Object> cacheStats = new LinkedHashMap<>();
+                cacheStats.put("size", nativeCache.estimatedSize());
+                cacheStats.put("hitCount", stats.hitCount());
+                cacheStats.put("missCount", stats.missCount());
+                cacheStats.put("hitRate", stats.hitRate());
+                cacheStats.put("evictionCount", stats.evictionCount());
+                result.put(name, cacheStats);
+            }
+        }
+        result.put("invalidations", invalidations.get());
+        return result;
+    }
+}
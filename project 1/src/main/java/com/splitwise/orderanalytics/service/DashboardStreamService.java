@@ -0,0 +1,280 @@
+package com.splitwise.orderanalytics.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.splitwise.orderanalytics.dto.DashboardDelta;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes dashboard deltas to every open {@code /api/dashboard/stream} connection. Committed writes
+ * are folded into one pending {@link DashboardDelta}; once per interval it is serialized a single
+ * time and sent to all subscribers, so a burst of upload chunks becomes one message and the
+ * number of dashboards never adds database work.
+ *
+ * <p>Every delta carries the version range it covers, and {@code /api/dashboard} reports the
+ * version of its snapshot, so a client applies exactly the deltas after the snapshot it holds. A
+ * snapshot read while commits were landing has no version, and the client reloads it on the next
+ * message.
+ * A delta with more edited or deleted rows than {@code app.dashboard.stream.max-rows} is sent as a
+ * {@code refetch} event instead. Subscribers are written from a small shared pool, each through
+ * its own bounded queue; one that falls that far behind is disconnected rather than holding up
+ * the others.
+ */
+@Service
+public class DashboardStreamService {
+
+    private static final int RECENT_ORDERS_LIMIT = 10;
+    private static final Duration SNAPSHOT_WAIT = Duration.ofSeconds(1);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Duration timeout;
+    private final int maxRows;
+    private final int sendQueue;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService senders;
+
+    // Deltas cut off by a snapshot, waiting for the next flush, and the one still collecting
+    private final List<DashboardDelta> sealed = new ArrayList<>();
+    private DashboardDelta pending;
+    // Commits past their before-commit phase whose changes are not folded into pending yet
+    private int applying;
+
+    public DashboardStreamService(@Value("${app.dashboard.stream.interval:PT1S}") Duration interval,
+            @Value("${app.dashboard.stream.heartbeat:PT15S}") Duration heartbeat,
+            @Value("${app.dashboard.stream.timeout:PT30M}") Duration timeout,
+            @Value("${app.dashboard.stream.max-rows:1000}") int maxRows,
+            @Value("${app.dashboard.stream.send-queue:32}") int sendQueue,
+            @Value("${app.dashboard.stream.sender-threads:4}") int senderThreads) {
+        this.timeout = timeout;
+        this.maxRows = maxRows;
+        this.sendQueue = sendQueue;
+        this.pending = new DashboardDelta(RECENT_ORDERS_LIMIT, maxRows, 0);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dashboard-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger senderCount = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "dashboard-stream-send-" + senderCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flush, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        // Comments keep proxies from closing idle streams and reveal clients that went away
+        scheduler.scheduleWithFixedDelay(() -> broadcast(SseEmitter.event().comment("ping")),
+                heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public SseEmitter subscribe() {
+        Subscriber subscriber = new Subscriber(new SseEmitter(timeout.toMillis()));
+        subscriber.emitter.onCompletion(subscriber::close);
+        subscriber.emitter.onTimeout(subscriber::close);
+        subscriber.emitter.onError(error -> subscriber.close());
+        subscribers.add(subscriber);
+        return subscriber.emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Version for a dashboard snapshot about to be read, taken once no commit is part-way through
+     * being applied; null when that does not happen within a second. Deltas sent later start
+     * exactly at a version handed out here.
+     */
+    public synchronized Long snapshotVersion() throws InterruptedException {
+        long deadline = System.nanoTime() + SNAPSHOT_WAIT.toNanos();
+        while (applying > 0) {
+            long left = deadline - System.nanoTime();
+            if (left <= 0) {
+                return null;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, left);
+        }
+        if (!pending.isEmpty()) {
+            sealed.add(pending);
+            pending = new DashboardDelta(RECENT_ORDERS_LIMIT, maxRows, pending.getVersion());
+        }
+        return pending.getVersion();
+    }
+
+    /** Whether nothing committed since {@link #snapshotVersion} returned {@code version}. */
+    public synchronized boolean isCurrent(long version) {
+        return applying == 0 && pending.getVersion() == version;
+    }
+
+    /**
+     * Counts the change as applying from just before its commit, when the database may start to
+     * show it, until the transaction completes, which is after every after-commit listener has
+     * updated the derived data; only then is it folded in and given its version.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onOrdersCommitting(OrdersChangedEvent event) {
+        synchronized (this) {
+            applying++;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                applied(status == STATUS_COMMITTED ? event : null);
+            }
+        });
+    }
+
+    private synchronized void applied(OrdersChangedEvent event) {
+        if (event != null) {
+            pending.apply(event.getAdded(), event.getRemoved());
+        }
+        applying--;
+        notifyAll();
+    }
+
+    private void flush() {
+        List<DashboardDelta> deltas;
+        synchronized (this) {
+            deltas = new ArrayList<>(sealed);
+            sealed.clear();
+            if (!pending.isEmpty()) {
+                deltas.add(pending);
+                pending = new DashboardDelta(RECENT_ORDERS_LIMIT, maxRows, pending.getVersion());
+            }
+        }
+        if (deltas.isEmpty() || subscribers.isEmpty()) {
+            return;
+        }
+
+        try {
+            for (DashboardDelta delta : deltas) {
+                if (delta.isRefetch()) {
+                    String json = objectMapper.writeValueAsString(Map.of(
+                            "fromVersion", delta.getFromVersion(), "version", delta.getVersion()));
+                    broadcast(SseEmitter.event().name("refetch").data(json, MediaType.APPLICATION_JSON));
+                } else {
+                    String json = objectMapper.writeValueAsString(delta);
+                    broadcast(SseEmitter.event().name("delta").data(json, MediaType.APPLICATION_JSON));
+                }
+            }
+        } catch (JsonProcessingException e) {
+            System.err.println("Không thể gửi cập nhật dashboard: " + e.getMessage());
+        }
+    }
+
+    // Built once here: a builder appends to itself on every build, so it cannot be shared
+    private void broadcast(SseEmitter.SseEventBuilder event) {
+        Set<ResponseBodyEmitter.DataWithMediaType> data = event.build();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.send(data);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    /**
+     * A subscriber's pending messages. At most one sender thread drains a queue at a time, so
+     * messages stay in order; a client whose queue fills up is dropped, and a blocked write holds
+     * only the one sender thread until the connection times out.
+     */
+    private class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean done = new AtomicBoolean();
+        private volatile boolean closing;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(sendQueue);
+        }
+
+        void send(Set<ResponseBodyEmitter.DataWithMediaType> data) {
+            if (queue.offer(data)) {
+                scheduleDrain();
+            } else {
+                // Too far behind to catch up; it reconnects and reloads the dashboard
+                complete();
+            }
+        }
+
+        // Completed from a sender thread, behind a write that may still be blocked
+        void complete() {
+            subscribers.remove(this);
+            closing = true;
+            queue.clear();
+            scheduleDrain();
+        }
+
+        // The emitter has already finished; nothing more is written to it
+        void close() {
+            subscribers.remove(this);
+            done.set(true);
+            closing = true;
+            queue.clear();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            do {
+                Set<ResponseBodyEmitter.DataWithMediaType> data;
+                while (!closing && (data = queue.poll()) != null) {
+                    try {
+                        emitter.send(data);
+                    } catch (IOException | IllegalStateException e) {
+                        close();
+                        emitter.completeWithError(e);
+                    }
+                }
+                if (closing && done.compareAndSet(false, true)) {
+                    emitter.complete();
+                }
+                draining.set(false);
+                // A message or completion that arrived after the last poll still needs a drain
+            } while ((closing ? !done.get() : !queue.isEmpty()) && draining.compareAndSet(false, true));
+        }
+    }
+}
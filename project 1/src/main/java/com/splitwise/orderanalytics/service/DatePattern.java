@@ -0,0 +1,128 @@
+package com.splitwise.orderanalytics.service;
+
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+
+/**
+ * The date layouts uploads may use, in the order they are tried. Each one reads its fixed-width
+ * fields straight from the characters and returns null on a mismatch instead of throwing, which
+ * is what made trying six {@code DateTimeFormatter}s per value expensive.
+ *
+ * <p>Like the formatters' default SMART resolving, a day past the end of the month is clamped to
+ * its last day.
+ */
+enum DatePattern {
+    ISO_DATE_TIME("yyyy-MM-dd HH:mm:ss", '-', FieldOrder.YMD, true),
+    DAY_FIRST_DATE_TIME("dd/MM/yyyy HH:mm:ss", '/', FieldOrder.DMY, true),
+    MONTH_FIRST_DATE_TIME("MM/dd/yyyy HH:mm:ss", '/', FieldOrder.MDY, true),
+    ISO_DATE("yyyy-MM-dd", '-', FieldOrder.YMD, false),
+    DAY_FIRST_DATE("dd/MM/yyyy", '/', FieldOrder.DMY, false),
+    MONTH_FIRST_DATE("MM/dd/yyyy", '/', FieldOrder.MDY, false);
+
+    private enum FieldOrder {
+        YMD, DMY, MDY
+    }
+
+    private static final DatePattern[] ALL = values();
+
+    private final String pattern;
+    private final char separator;
+    private final FieldOrder order;
+    private final boolean withTime;
+
+    DatePattern(String pattern, char separator, FieldOrder order, boolean withTime) {
+        this.pattern = pattern;
+        this.separator = separator;
+        this.order = order;
+        this.withTime = withTime;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    /** The first pattern that reads the value, or null when none does. */
+    static LocalDateTime parseAny(String value) {
+        for (DatePattern pattern : ALL) {
+            LocalDateTime date = pattern.parse(value);
+            if (date != null) {
+                return date;
+            }
+        }
+        return null;
+    }
+
+    LocalDateTime parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        int start = 0;
+        int end = value.length();
+        while (start < end && value.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (end - start != pattern.length()) {
+            return null;
+        }
+
+        int year;
+        int month;
+        int day;
+        if (order == FieldOrder.YMD) {
+            if (value.charAt(start + 4) != separator || value.charAt(start + 7) != separator) {
+                return null;
+            }
+            year = digits(value, start, 4);
+            month = digits(value, start + 5, 2);
+            day = digits(value, start + 8, 2);
+        } else {
+            if (value.charAt(start + 2) != separator || value.charAt(start + 5) != separator) {
+                return null;
+            }
+            int leading = digits(value, start, 2);
+            int middle = digits(value, start + 3, 2);
+            year = digits(value, start + 6, 4);
+            day = order == FieldOrder.DMY ? leading : middle;
+            month = order == FieldOrder.DMY ? middle : leading;
+        }
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return null;
+        }
+
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        if (withTime) {
+            int time = start + 10;
+            if (value.charAt(time) != ' ' || value.charAt(time + 3) != ':' || value.charAt(time + 6) != ':') {
+                return null;
+            }
+            hour = digits(value, time + 1, 2);
+            minute = digits(value, time + 4, 2);
+            second = digits(value, time + 7, 2);
+            if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+                return null;
+            }
+        }
+
+        int monthLength = Month.of(month).length(Year.isLeap(year));
+        return LocalDateTime.of(year, month, Math.min(day, monthLength), hour, minute, second);
+    }
+
+    // -1 unless every character in the range is an ASCII digit
+    private static int digits(String value, int from, int count) {
+        int result = 0;
+        for (int i = from; i < from + count; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+}
@@ -0,0 +1,133 @@
+package com.splitwise.orderanalytics.service;
+
+import com.splitwise.orderanalytics.entity.Order;
+import com.splitwise.orderanalytics.repository.OrderJdbcRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Distinct customers and products per (month, region, category) slice, each held as a pair of
+ * {@link HyperLogLog} sketches. Any roll-up, e.g. a quarter across all regions, merges the
+ * matching slices' registers instead of scanning orders.
+ *
+ * <p>Customers are identified by email, or by name when the order has no email. Sketches only
+ * grow: an edit adds the new values and a delete removes nothing, so counts can run slightly high
+ * until the next restart rebuilds them.
+ */
+@Service
+public class DistinctCountService {
+
+    @Autowired
+    private OrderJdbcRepository orderJdbcRepository;
+
+    @Value("${app.analytics.distinct.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.analytics.distinct.precision:12}")
+    private int precision;
+
+    private final Map<List<Object>, Slice> slices = new HashMap<>();
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        synchronized (this) {
+            slices.clear();
+            orderJdbcRepository.scanAnalyticsColumns(rs -> add(
+                    rs.getTimestamp("order_date").toLocalDateTime(), rs.getString("region"),
+                    rs.getString("category"), rs.getString("customer_email"),
+                    rs.getString("customer_name"), rs.getString("product_name")));
+            ready = true;
+        }
+        System.out.println("Đã dựng " + slices.size() + " sketch HyperLogLog trong "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public synchronized void onOrdersChanged(OrdersChangedEvent event) {
+        if (!ready) {
+            return;
+        }
+        for (Order order : event.getAdded()) {
+            add(order.getOrderDate(), order.getRegion(), order.getCategory(), order.getCustomerEmail(),
+                    order.getCustomerName(), order.getProductName());
+        }
+    }
+
+    /**
+     * Estimated distinct customers and products over the slices matching every given bound; a null
+     * argument leaves that dimension unrestricted.
+     */
+    public synchronized Map<String, Object> count(YearMonth fromMonth, YearMonth toMonth, String region,
+            String category) {
+        Slice union = new Slice(precision);
+        int merged = 0;
+        for (Map.Entry<List<Object>, Slice> entry : slices.entrySet()) {
+            List<Object> key = entry.getKey();
+            YearMonth month = (YearMonth) key.get(0);
+            if ((fromMonth != null && month.isBefore(fromMonth))
+                    || (toMonth != null && month.isAfter(toMonth))
+                    || (region != null && !region.equalsIgnoreCase((String) key.get(1)))
+                    || (category != null && !category.equalsIgnoreCase((String) key.get(2)))) {
+                continue;
+            }
+            union.customers.merge(entry.getValue().customers);
+            union.products.merge(entry.getValue().products);
+            merged++;
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("distinctCustomers", union.customers.estimate());
+        result.put("distinctProducts", union.products.estimate());
+        result.put("slices", merged);
+        return result;
+    }
+
+    private void add(LocalDateTime orderDate, String region, String category, String customerEmail,
+            String customerName, String productName) {
+        List<Object> key = List.of(YearMonth.from(orderDate), region != null ? region : "",
+                category != null ? category : "");
+        Slice slice = slices.computeIfAbsent(key, k -> new Slice(precision));
+
+        String customer = customerEmail != null && !customerEmail.isBlank() ? customerEmail : customerName;
+        if (customer != null) {
+            slice.customers.add(customer.trim().toLowerCase(Locale.ROOT));
+        }
+        if (productName != null) {
+            slice.products.add(productName.trim().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    private static class Slice {
+        private final HyperLogLog customers;
+        private final HyperLogLog products;
+
+        Slice(int precision) {
+            this.customers = new HyperLogLog(precision);
+            this.products = new HyperLogLog(precision);
+        }
+    }
+}
@@ -1,116 +1,424 @@
 package com.splitwise.orderanalytics.service;
 
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
+import com.splitwise.orderanalytics.dto.FileImportResult;
+import com.splitwise.orderanalytics.dto.ImportResult;
+import com.splitwise.orderanalytics.dto.UploadMode;
 import com.splitwise.orderanalytics.entity.Order;
 import com.splitwise.orderanalytics.entity.OrderStatus;
-import com.splitwise.orderanalytics.entity.Product;
-import com.splitwise.orderanalytics.repository.OrderRepository;
-import com.splitwise.orderanalytics.repository.ProductRepository;
-import java.util.Optional;
+import com.splitwise.orderanalytics.entity.StockMovementReason;
+import com.splitwise.orderanalytics.repository.OrderJdbcRepository;
+import org.apache.commons.io.input.CountingInputStream;
+import jakarta.annotation.PreDestroy;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
 
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 @Service
 public class FileUploadService {
 
     @Autowired
-    private OrderRepository orderRepository;
+    private ProductStockService productStockService;
 
     @Autowired
-    private ProductRepository productRepository;
+    private OrderJdbcRepository orderJdbcRepository;
 
-    private static final DateTimeFormatter[] DATE_FORMATTERS = {
-            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
-            DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss"),
-            DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm:ss"),
-            DateTimeFormatter.ofPattern("yyyy-MM-dd"),
-            DateTimeFormatter.ofPattern("dd/MM/yyyy"),
-            DateTimeFormatter.ofPattern("MM/dd/yyyy")
-    };
+    @Autowired
+    private RevenueRollupService revenueRollupService;
 
-    public List<Order> parseExcelFile(MultipartFile file) throws IOException {
-        List<Order> orders = new ArrayList<>();
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
-        try (InputStream inputStream = file.getInputStream();
-                Workbook workbook = new XSSFWorkbook(inputStream)) {
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
-            Sheet sheet = workbook.getSheetAt(0);
+    @Autowired
+    private UploadMetrics uploadMetrics;
 
-            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row == null || isRowEmpty(row))
-                    continue;
+    @Value("${app.upload.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${app.upload.max-archive-entries:1000}")
+    private int maxArchiveEntries;
+
+    @Value("${app.upload.max-extracted-size:4GB}")
+    private DataSize maxExtractedSize;
+
+    // Shared by all uploads; a job's own worker thread persists while these parse its files and sheets
+    private final ThreadPoolExecutor parsePool;
+    private final int parseThreads;
+
+    private static final int PROGRESS_INTERVAL = 1000;
+
+    // Rows sampled to fix a CSV file's value formats before the rest is decoded
+    private static final int SNIFF_ROWS = 500;
+
+    // Exact spellings, lowercased once: enum names and display names
+    private static final Map<String, OrderStatus> STATUS_NAMES = new HashMap<>();
+
+    static {
+        for (OrderStatus status : OrderStatus.values()) {
+            STATUS_NAMES.put(status.name().toLowerCase(), status);
+            STATUS_NAMES.put(status.getDisplayName().toLowerCase(), status);
+        }
+    }
+
+    public FileUploadService(@Value("${app.upload.parse-threads:0}") int parseThreads) {
+        this.parseThreads = parseThreads > 0 ? parseThreads : Runtime.getRuntime().availableProcessors();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.parsePool = new ThreadPoolExecutor(this.parseThreads, this.parseThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "upload-parse-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
 
-                Order order = mapRowToOrder(row);
-                if (order != null) {
-                    orders.add(order);
+    @PreDestroy
+    public void shutdown() {
+        parsePool.shutdownNow();
+    }
+
+    /**
+     * Streams a staged upload through the parser matching its extension into {@code writer}.
+     * Rows are persisted chunk by chunk as they are parsed. A ZIP or a multi-sheet workbook is
+     * split into files and sheets that are parsed in parallel; a failure in one of them is
+     * reported in its {@link FileImportResult} without stopping the others.
+     */
+    public ImportResult importFile(Path file, String fileName, OrderBatchWriter writer)
+            throws IOException, CsvValidationException {
+        long start = System.nanoTime();
+        List<String> warnings = new ArrayList<>();
+        List<FileImportResult> files;
+        Path workDir = file.resolveSibling(file.getFileName() + ".parts");
+        try {
+            List<UploadSource> sources = UploadSource.expand(file, fileName, workDir, maxArchiveEntries,
+                    maxExtractedSize.toBytes(), warnings);
+            if (sources.size() == 1) {
+                UploadSource source = sources.get(0);
+                warnings.addAll(parseSource(source, writer));
+                FileImportResult single = new FileImportResult(source.getName());
+                single.setRowsParsed(writer.getRowsParsed());
+                single.setRowsRejected(writer.getRowsRejected());
+                single.setWarnings(List.copyOf(warnings));
+                files = List.of(single);
+            } else {
+                files = new ParallelImport(sources, writer, parseThreads * 2).run(parsePool, this::parseSource);
+                for (FileImportResult part : files) {
+                    for (String warning : part.getWarnings()) {
+                        warnings.add(part.getName() + ": " + warning);
+                    }
+                    if (part.getError() != null) {
+                        warnings.add(part.getName() + ": " + part.getError());
+                    }
                 }
             }
+            writer.flush();
+        } finally {
+            uploadMetrics.recordParse(System.nanoTime() - start - writer.getPersistNanos());
+            deleteRecursively(workDir);
+        }
+
+        ImportResult result = writer.getResult();
+        result.setWarnings(warnings);
+        result.setFiles(files);
+        return result;
+    }
+
+    List<String> parseSource(UploadSource source, OrderSink sink) throws IOException, CsvValidationException {
+        switch (source.getType()) {
+            case CSV:
+                return parseCsvFile(source.getFile(), sink);
+            case XLS:
+                parseXlsFile(source.getFile(), sink);
+                return List.of();
+            default:
+                parseXlsxSheet(source.getFile(), source.getSheetIndex(), sink);
+                return List.of();
+        }
+    }
+
+    private static void deleteRecursively(Path dir) {
+        if (!Files.exists(dir))
+            return;
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            System.err.println("Không thể xóa thư mục tạm " + dir + ": " + e.getMessage());
+        }
+    }
+
+    /** Reads every sheet of the workbook, one after another. */
+    public void parseExcelFile(Path file, String fileName, OrderSink sink) throws IOException {
+        if (fileName.toLowerCase().endsWith(".xls")) {
+            parseXlsFile(file, sink);
+            return;
+        }
+        int sheets = XlsxStreamingReader.sheetNames(file).size();
+        for (int i = 0; i < sheets; i++) {
+            parseXlsxSheet(file, i, sink);
+        }
+    }
+
+    // Legacy .xls is a binary format with no streaming reader, so it still goes through the DOM
+    private void parseXlsFile(Path file, OrderSink sink) throws IOException {
+        try (Workbook workbook = WorkbookFactory.create(file.toFile(), null, true)) {
+            for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
+                parseSheet(workbook.getSheetAt(i), sink);
+            }
         }
+    }
+
+    private void parseXlsxSheet(Path file, int sheetIndex, OrderSink sink) throws IOException {
+        XlsxStreamingReader.readSheet(file, sheetIndex, row -> {
+            if (row.getRowNum() == 0 || row.isEmpty())
+                return;
 
-        return orders;
+            Order order = mapRowToOrder(row);
+            if (order != null) {
+                sink.accept(order);
+            } else {
+                sink.reject();
+            }
+            if (row.getSheetRowCount() > 0 && row.getRowNum() % PROGRESS_INTERVAL == 0) {
+                sink.progress(Math.min(1.0, (double) row.getRowNum() / row.getSheetRowCount()));
+            }
+        });
+        sink.progress(1.0);
     }
 
-    public List<Order> parseCsvFile(MultipartFile file)
-            throws IOException, com.opencsv.exceptions.CsvValidationException {
-        List<Order> orders = new ArrayList<>();
+    private void parseSheet(Sheet sheet, OrderSink sink) {
+        int lastRowNum = sheet.getLastRowNum();
+        for (int i = 1; i <= lastRowNum; i++) {
+            Row row = sheet.getRow(i);
+            if (row == null || isRowEmpty(row))
+                continue;
+
+            Order order = mapRowToOrder(row);
+            if (order != null) {
+                sink.accept(order);
+            } else {
+                sink.reject();
+            }
+            if (i % PROGRESS_INTERVAL == 0) {
+                sink.progress((double) i / lastRowNum);
+            }
+        }
+        sink.progress(1.0);
+    }
 
-        try (InputStream inputStream = file.getInputStream()) {
-            com.opencsv.CSVReader reader = new com.opencsv.CSVReader(new java.io.InputStreamReader(inputStream));
+    public List<String> parseCsvFile(Path file, OrderSink sink) throws IOException, CsvValidationException {
+        long fileSize = Files.size(file);
+        try (CountingInputStream inputStream = new CountingInputStream(Files.newInputStream(file))) {
+            CSVReader reader = new CSVReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
 
             String[] headers = reader.readNext();
+            if (headers == null)
+                return List.of();
 
+            CsvRowDecoder decoder = CsvRowDecoder.compile(headers);
+            if (!decoder.isComplete()) {
+                throw new IllegalArgumentException("Thiếu cột bắt buộc trong file CSV: "
+                        + String.join(", ", decoder.getMissingRequired()));
+            }
+
+            // Fix the file's date, number and status formats from its first rows, then decode against them
+            List<String[]> sample = new ArrayList<>(SNIFF_ROWS);
             String[] row;
+            while (sample.size() < SNIFF_ROWS && (row = reader.readNext()) != null) {
+                if (row.length > 0 && !isEmptyRow(row)) {
+                    sample.add(row);
+                }
+            }
+            RowFormat format = decoder.sniff(sample, this::parseOrderStatus);
+            decoder = decoder.withFormat(format);
+
+            for (String[] sampled : sample) {
+                acceptCsvRow(sampled, decoder, sink);
+            }
+            long rowNum = sample.size();
             while ((row = reader.readNext()) != null) {
+                if (++rowNum % PROGRESS_INTERVAL == 0 && fileSize > 0) {
+                    sink.progress(Math.min(1.0, (double) inputStream.getByteCount() / fileSize));
+                }
                 if (row.length == 0 || isEmptyRow(row))
                     continue;
 
-                Order order = mapCsvRowToOrder(row, headers);
-                if (order != null) {
-                    orders.add(order);
-                }
+                acceptCsvRow(row, decoder, sink);
             }
+            sink.progress(1.0);
+            return decoder.getWarnings();
         }
-
-        return orders;
     }
 
-    public void saveOrders(List<Order> orders) {
-        for (Order order : orders) {
-            updateProductStock(order);
+    private void acceptCsvRow(String[] row, CsvRowDecoder decoder, OrderSink sink) {
+        Order order = mapCsvRowToOrder(row, decoder);
+        if (order != null) {
+            sink.accept(order);
+        } else {
+            sink.reject();
         }
-        orderRepository.saveAll(orders);
     }
 
-    private void updateProductStock(Order order) {
-        if (order.getProductName() == null)
-            return;
+    public ImportResult saveOrders(List<Order> orders) {
+        OrderBatchWriter writer = newBatchWriter();
+        orders.forEach(writer);
+        writer.flush();
+        return writer.getResult();
+    }
+
+    public OrderBatchWriter newBatchWriter() {
+        return newBatchWriter(UploadMode.INSERT);
+    }
+
+    public OrderBatchWriter newBatchWriter(UploadMode mode) {
+        return new OrderBatchWriter(chunkSize, mode == UploadMode.UPSERT ? this::upsertChunk : this::persistChunk,
+                uploadMetrics);
+    }
 
-        Optional<Product> productOpt = productRepository.findByName(order.getProductName());
-        if (productOpt.isPresent()) {
-            Product product = productOpt.get();
-            int quantity = order.getQuantity() != null ? order.getQuantity() : 0;
+    // Each chunk commits on its own, so a failure part-way through keeps the chunks already written
+    private ChunkOutcome persistChunk(List<Order> chunk) {
+        long start = System.nanoTime();
+        long[] stockNanos = new long[1];
+        transactionTemplate.executeWithoutResult(status -> {
+            updateProductStock(chunk, List.of());
+            stockNanos[0] = System.nanoTime() - start;
+            orderJdbcRepository.batchInsert(chunk);
+            revenueRollupService.add(chunk);
+            eventPublisher.publishEvent(OrdersChangedEvent.added(chunk));
+        });
+        uploadMetrics.recordStockUpdate(stockNanos[0]);
+        // Insert, roll-up and commit, including the stock batch and the after-commit listeners
+        uploadMetrics.recordPersist(System.nanoTime() - start - stockNanos[0]);
+        return ChunkOutcome.inserted(chunk.size());
+    }
 
-            // If order is Returned or Cancelled, we add stock back
-            if (order.getStatus() == OrderStatus.RETURNED || order.getStatus() == OrderStatus.CANCELLED) {
-                product.setStockQuantity(product.getStockQuantity() + quantity);
+    // Upsert by order code: the chunk is staged and applied with one MERGE, so re-uploading an export
+    // adds no duplicates and needs no per-row lookups. Only rows that actually changed move stock,
+    // by the difference between their old and new version, and reach the roll-up and listeners.
+    private ChunkOutcome upsertChunk(List<Order> chunk) {
+        // MERGE needs each code once; a code repeated within the chunk keeps its last row. Codes are
+        // compared like the column's collation: ignoring case and trailing spaces
+        Map<String, Order> latest = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Order order : chunk) {
+            latest.put(order.getOrderCode().stripTrailing(), order);
+        }
+        List<Order> rows = new ArrayList<>(latest.values());
+        String batchId = UUID.randomUUID().toString();
+
+        long start = System.nanoTime();
+        long[] stockNanos = new long[1];
+        ChunkOutcome outcome = transactionTemplate.execute(status -> {
+            orderJdbcRepository.stage(batchId, rows);
+            Map<Long, Order> before = new HashMap<>();
+            for (Order order : orderJdbcRepository.lockByStagedCodes(batchId)) {
+                before.put(order.getId(), order);
             }
-            // Otherwise (Pending, Confirmed, Shipped, Delivered), we deduct stock
-            else {
-                product.setStockQuantity(product.getStockQuantity() - quantity);
+            orderJdbcRepository.mergeStaged(batchId);
+
+            List<Order> added = new ArrayList<>();
+            List<Order> removed = new ArrayList<>();
+            Set<String> insertedCodes = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+            Set<String> updatedCodes = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+            for (Order after : orderJdbcRepository.findByStagedCodes(batchId)) {
+                Order previous = before.get(after.getId());
+                if (previous == null) {
+                    insertedCodes.add(after.getOrderCode().stripTrailing());
+                } else if (!sameValues(previous, after)) {
+                    updatedCodes.add(after.getOrderCode().stripTrailing());
+                    removed.add(previous);
+                } else {
+                    continue;
+                }
+                added.add(after);
             }
-            productRepository.save(product);
+            orderJdbcRepository.clearStaged(batchId);
+
+            long stockStart = System.nanoTime();
+            updateProductStock(added, removed);
+            stockNanos[0] = System.nanoTime() - stockStart;
+            revenueRollupService.subtract(removed);
+            revenueRollupService.add(added);
+            eventPublisher.publishEvent(new OrdersChangedEvent(added, removed));
+
+            // Rows superseded within the chunk count as unchanged
+            int changed = insertedCodes.size() + updatedCodes.size();
+            return new ChunkOutcome(insertedCodes.size(), updatedCodes.size(), chunk.size() - changed);
+        });
+        uploadMetrics.recordStockUpdate(stockNanos[0]);
+        uploadMetrics.recordPersist(System.nanoTime() - start - stockNanos[0]);
+        return outcome;
+    }
+
+    // Both sides come from the database, so amounts share a scale and dates a precision
+    private static boolean sameValues(Order a, Order b) {
+        return Objects.equals(a.getCustomerName(), b.getCustomerName())
+                && Objects.equals(a.getCustomerEmail(), b.getCustomerEmail())
+                && Objects.equals(a.getProductName(), b.getProductName())
+                && Objects.equals(a.getQuantity(), b.getQuantity())
+                && a.getUnitPrice().compareTo(b.getUnitPrice()) == 0
+                && a.getTotalAmount().compareTo(b.getTotalAmount()) == 0
+                && a.getStatus() == b.getStatus()
+                && Objects.equals(a.getOrderDate(), b.getOrderDate())
+                && Objects.equals(a.getCategory(), b.getCategory())
+                && Objects.equals(a.getRegion(), b.getRegion());
+    }
+
+    // Folds the written orders into one net delta per product, backing out the versions they replace.
+    // They are appended to the stock ledger with the chunk's commit, see ProductStockService.
+    private void updateProductStock(List<Order> written, List<Order> replaced) {
+        Map<String, Integer> deltas = new HashMap<>();
+        for (Order order : written) {
+            if (order.getProductName() == null)
+                continue;
+            deltas.merge(order.getProductName(), stockDelta(order), Integer::sum);
+        }
+        for (Order order : replaced) {
+            if (order.getProductName() == null)
+                continue;
+            deltas.merge(order.getProductName(), -stockDelta(order), Integer::sum);
+        }
+        productStockService.adjust(deltas, StockMovementReason.UPLOAD);
+    }
+
+    private int stockDelta(Order order) {
+        int quantity = order.getQuantity() != null ? order.getQuantity() : 0;
+
+        // If order is Returned or Cancelled, we add stock back
+        if (order.getStatus() == OrderStatus.RETURNED || order.getStatus() == OrderStatus.CANCELLED) {
+            return quantity;
         }
+        // Otherwise (Pending, Confirmed, Shipped, Delivered), we deduct stock
+        return -quantity;
     }
 
     private Order mapRowToOrder(Row row) {
@@ -135,24 +443,24 @@ public class FileUploadService {
             return new Order(orderCode, customerName, customerEmail, productName,
                     quantity, unitPrice, totalAmount, status, orderDate, category, region);
         } catch (Exception e) {
-            System.err.println("Error mapping row to order: " + e.getMessage());
+            // Counted by the caller as a rejected row
             return null;
         }
     }
 
-    private Order mapCsvRowToOrder(String[] row, String[] headers) {
+    private Order mapRowToOrder(XlsxStreamingReader.XlsxRow row) {
         try {
-            String orderCode = getValueByHeader(row, headers, "orderCode", "Mã đơn hàng");
-            String customerName = getValueByHeader(row, headers, "customerName", "Tên khách hàng");
-            String customerEmail = getValueByHeader(row, headers, "customerEmail", "Email");
-            String productName = getValueByHeader(row, headers, "productName", "Sản phẩm");
-            Integer quantity = getIntegerValueByHeader(row, headers, "quantity", "Số lượng");
-            BigDecimal unitPrice = getBigDecimalValueByHeader(row, headers, "unitPrice", "Đơn giá");
-            BigDecimal totalAmount = getBigDecimalValueByHeader(row, headers, "totalAmount", "Tổng tiền");
-            OrderStatus status = parseOrderStatus(getValueByHeader(row, headers, "status", "Trạng thái"));
-            LocalDateTime orderDate = parseDate(getValueByHeader(row, headers, "orderDate", "Ngày đặt hàng"));
-            String category = getValueByHeader(row, headers, "category", "Danh mục");
-            String region = getValueByHeader(row, headers, "region", "Khu vực");
+            String orderCode = getXlsxValueAsString(row, 0);
+            String customerName = getXlsxValueAsString(row, 1);
+            String customerEmail = getXlsxValueAsString(row, 2);
+            String productName = getXlsxValueAsString(row, 3);
+            Integer quantity = getXlsxValueAsInteger(row, 4);
+            BigDecimal unitPrice = getXlsxValueAsBigDecimal(row, 5);
+            BigDecimal totalAmount = getXlsxValueAsBigDecimal(row, 6);
+            OrderStatus status = parseOrderStatus(getXlsxValueAsString(row, 7));
+            LocalDateTime orderDate = getXlsxValueAsDate(row, 8);
+            String category = getXlsxValueAsString(row, 9);
+            String region = getXlsxValueAsString(row, 10);
 
             if (orderCode == null || customerName == null || productName == null ||
                     quantity == null || unitPrice == null || totalAmount == null || status == null) {
@@ -162,30 +470,59 @@ public class FileUploadService {
             return new Order(orderCode, customerName, customerEmail, productName,
                     quantity, unitPrice, totalAmount, status, orderDate, category, region);
         } catch (Exception e) {
-            System.err.println("Error mapping CSV row to order: " + e.getMessage());
+            // Counted by the caller as a rejected row
             return null;
         }
     }
 
-    private String getValueByHeader(String[] row, String[] headers, String... possibleHeaders) {
-        for (String header : possibleHeaders) {
-            for (int i = 0; i < headers.length; i++) {
-                if (headers[i] != null && headers[i].toLowerCase().contains(header.toLowerCase())) {
-                    return row.length > i ? row[i] : null;
-                }
+    Order mapCsvRowToOrder(String[] row, CsvRowDecoder decoder) {
+        return decoder.decode(row);
+    }
+
+    private String getXlsxValueAsString(XlsxStreamingReader.XlsxRow row, int column) {
+        String value = row.getValue(column);
+        if (value == null)
+            return null;
+
+        return row.isNumeric(column) ? String.valueOf((long) Double.parseDouble(value)) : value;
+    }
+
+    private Integer getXlsxValueAsInteger(XlsxStreamingReader.XlsxRow row, int column) {
+        String value = row.getValue(column);
+        if (value == null)
+            return null;
+
+        try {
+            if (row.isNumeric(column)) {
+                return (int) Double.parseDouble(value);
             }
+            return NumberStyle.COMMA_GROUPED.parseInteger(value);
+        } catch (Exception e) {
+            return null;
         }
-        return null;
     }
 
-    private Integer getIntegerValueByHeader(String[] row, String[] headers, String... possibleHeaders) {
-        String value = getValueByHeader(row, headers, possibleHeaders);
-        return value != null && !value.isEmpty() ? Integer.parseInt(value.trim()) : null;
+    private BigDecimal getXlsxValueAsBigDecimal(XlsxStreamingReader.XlsxRow row, int column) {
+        String value = row.getValue(column);
+        if (value == null)
+            return null;
+
+        try {
+            if (row.isNumeric(column)) {
+                return new BigDecimal(value);
+            }
+            return NumberStyle.COMMA_GROUPED.parseDecimal(value);
+        } catch (Exception e) {
+            return null;
+        }
     }
 
-    private BigDecimal getBigDecimalValueByHeader(String[] row, String[] headers, String... possibleHeaders) {
-        String value = getValueByHeader(row, headers, possibleHeaders);
-        return value != null && !value.isEmpty() ? new BigDecimal(value.replaceAll("[,₫]", "").trim()) : null;
+    private LocalDateTime getXlsxValueAsDate(XlsxStreamingReader.XlsxRow row, int column) {
+        // Date-formatted cells arrive as Excel serial numbers rather than text
+        if (row.isNumeric(column)) {
+            return DateUtil.getLocalDateTime(Double.parseDouble(row.getValue(column)));
+        }
+        return parseDate(row.getValue(column));
     }
 
     private String getCellValueAsString(Cell cell) {
@@ -215,8 +552,7 @@ public class FileUploadService {
                 case NUMERIC:
                     return (int) cell.getNumericCellValue();
                 case STRING:
-                    String str = cell.getStringCellValue().trim();
-                    return str.isEmpty() ? null : Integer.parseInt(str.replaceAll("[,]", ""));
+                    return NumberStyle.COMMA_GROUPED.parseInteger(cell.getStringCellValue());
                 default:
                     return null;
             }
@@ -225,7 +561,7 @@ public class FileUploadService {
         }
     }
 
-    private BigDecimal getCellValueAsBigDecimal(Cell cell) {
+    BigDecimal getCellValueAsBigDecimal(Cell cell) {
         if (cell == null)
             return null;
 
@@ -234,8 +570,7 @@ public class FileUploadService {
                 case NUMERIC:
                     return BigDecimal.valueOf(cell.getNumericCellValue());
                 case STRING:
-                    String str = cell.getStringCellValue().trim();
-                    return str.isEmpty() ? null : new BigDecimal(str.replaceAll("[,₫]", ""));
+                    return NumberStyle.COMMA_GROUPED.parseDecimal(cell.getStringCellValue());
                 default:
                     return null;
             }
@@ -244,18 +579,15 @@ public class FileUploadService {
         }
     }
 
-    private OrderStatus parseOrderStatus(String statusStr) {
+    OrderStatus parseOrderStatus(String statusStr) {
         if (statusStr == null || statusStr.trim().isEmpty())
             return null;
 
         statusStr = statusStr.trim().toLowerCase();
 
-        for (OrderStatus status : OrderStatus.values()) {
-            if (status.name().toLowerCase().equals(statusStr) ||
-                    status.getDisplayName().toLowerCase().equals(statusStr)) {
-                return status;
-            }
-        }
+        OrderStatus exact = STATUS_NAMES.get(statusStr);
+        if (exact != null)
+            return exact;
 
         if (statusStr.contains("chờ") || statusStr.contains("pending"))
             return OrderStatus.PENDING;
@@ -273,25 +605,12 @@ public class FileUploadService {
         return null;
     }
 
-    private LocalDateTime parseDate(String dateStr) {
+    LocalDateTime parseDate(String dateStr) {
         if (dateStr == null || dateStr.trim().isEmpty())
             return LocalDateTime.now();
 
-        dateStr = dateStr.trim();
-
-        for (DateTimeFormatter formatter : DATE_FORMATTERS) {
-            try {
-                if (formatter.toString().contains("HH:mm")) {
-                    return LocalDateTime.parse(dateStr, formatter);
-                } else {
-                    return java.time.LocalDate.parse(dateStr, formatter).atStartOfDay();
-                }
-            } catch (Exception e) {
-                continue;
-            }
-        }
-
-        return LocalDateTime.now();
+        LocalDateTime date = DatePattern.parseAny(dateStr);
+        return date != null ? date : LocalDateTime.now();
     }
 
     private boolean isRowEmpty(Row row) {
@@ -0,0 +1,125 @@
+package com.splitwise.orderanalytics.service;
+
+import java.util.PriorityQueue;
+
+/**
+ * Open-addressing map from a dictionary id to order count, quantity and amount (minor units),
+ * kept in parallel primitive arrays so aggregating a partition allocates nothing per row.
+ */
+class GroupTotals {
+
+    private static final int EMPTY = 0;
+    private static final int KEY_OFFSET = 2;
+    private static final int INITIAL_CAPACITY = 64;
+
+    // Keys are stored as id + 2, so 0 marks a free slot and -1 (no value) is stored as 1
+    private int[] keys = new int[INITIAL_CAPACITY];
+    private long[] counts = new long[INITIAL_CAPACITY];
+    private long[] quantities = new long[INITIAL_CAPACITY];
+    private long[] amounts = new long[INITIAL_CAPACITY];
+    private int size;
+
+    void add(int key, long count, long quantity, long amount) {
+        int slot = slotOf(key);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key + KEY_OFFSET;
+            if (++size * 2 > keys.length) {
+                resize();
+                slot = slotOf(key);
+            }
+        }
+        counts[slot] += count;
+        quantities[slot] += quantity;
+        amounts[slot] += amount;
+    }
+
+    void addAll(GroupTotals other) {
+        for (int slot = 0; slot < other.keys.length; slot++) {
+            if (other.keys[slot] != EMPTY) {
+                add(other.keys[slot] - KEY_OFFSET, other.counts[slot], other.quantities[slot], other.amounts[slot]);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    int key(int slot) {
+        return keys[slot] - KEY_OFFSET;
+    }
+
+    long count(int slot) {
+        return counts[slot];
+    }
+
+    long quantity(int slot) {
+        return quantities[slot];
+    }
+
+    long amount(int slot) {
+        return amounts[slot];
+    }
+
+    /** Slots of the k largest groups by quantity or amount, largest first, via a bounded min-heap. */
+    int[] topSlots(int k, boolean byQuantity) {
+        long[] metric = byQuantity ? quantities : amounts;
+        PriorityQueue<Integer> heap = new PriorityQueue<>(k + 1, (a, b) -> Long.compare(metric[a], metric[b]));
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] == EMPTY) {
+                continue;
+            }
+            if (heap.size() < k) {
+                heap.offer(slot);
+            } else if (metric[slot] > metric[heap.peek()]) {
+                heap.poll();
+                heap.offer(slot);
+            }
+        }
+
+        int[] slots = new int[heap.size()];
+        for (int i = slots.length - 1; i >= 0; i--) {
+            slots[i] = heap.poll();
+        }
+        return slots;
+    }
+
+    private int slotOf(int key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key + KEY_OFFSET) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize() {
+        int[] oldKeys = keys;
+        long[] oldCounts = counts;
+        long[] oldQuantities = quantities;
+        long[] oldAmounts = amounts;
+
+        int capacity = oldKeys.length * 2;
+        keys = new int[capacity];
+        counts = new long[capacity];
+        quantities = new long[capacity];
+        amounts = new long[capacity];
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slotOf(oldKeys[i] - KEY_OFFSET);
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+                quantities[slot] = oldQuantities[i];
+                amounts[slot] = oldAmounts[i];
+            }
+        }
+    }
+
+    // Dictionary ids are dense and sequential; spread them so neighbours do not cluster
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+}
@@ -0,0 +1,217 @@
+package com.splitwise.orderanalytics.service;
+
+import java.math.BigDecimal;
+
+/**
+ * How an upload writes numbers: "1,250,000.50" or the Vietnamese "1.250.000,50". Either may carry
+ * a currency mark (₫, đ, VND, $) before or after the number. Values are read in one pass into an
+ * unscaled long, so a well-formed amount costs one {@code BigDecimal} and no intermediate strings;
+ * anything malformed yields null rather than an exception.
+ */
+enum NumberStyle {
+    COMMA_GROUPED(',', '.', "1,234.5"),
+    DOT_GROUPED('.', ',', "1.234,5");
+
+    private static final String[] CURRENCY_MARKS = {"₫", "đ", "VNĐ", "VND", "$"};
+
+    // A long holds any 18-digit number; longer ones take the slow path
+    private static final int MAX_FAST_DIGITS = 18;
+
+    private final char groupSeparator;
+    private final char decimalSeparator;
+    private final String example;
+
+    NumberStyle(char groupSeparator, char decimalSeparator, String example) {
+        this.groupSeparator = groupSeparator;
+        this.decimalSeparator = decimalSeparator;
+        this.example = example;
+    }
+
+    public String getExample() {
+        return example;
+    }
+
+    /**
+     * Picks the style the sampled values support. Only unambiguous values count as evidence
+     * ("1.250" could be either); with no evidence for dot grouping the file keeps the comma style
+     * uploads have always been read with.
+     */
+    static NumberStyle detect(Iterable<String> samples) {
+        int commaVotes = 0;
+        int dotVotes = 0;
+        for (String sample : samples) {
+            if (sample == null) {
+                continue;
+            }
+            int dots = 0;
+            int commas = 0;
+            int lastDot = -1;
+            int lastComma = -1;
+            for (int i = 0; i < sample.length(); i++) {
+                char c = sample.charAt(i);
+                if (c == '.') {
+                    dots++;
+                    lastDot = i;
+                } else if (c == ',') {
+                    commas++;
+                    lastComma = i;
+                }
+            }
+
+            if (dots > 1 || (dots > 0 && commas > 0 && lastComma > lastDot)) {
+                dotVotes++;
+            } else if (commas > 1 || (dots > 0 && commas > 0 && lastDot > lastComma)) {
+                commaVotes++;
+            } else if (commas == 1 && dots == 0) {
+                if (digitsAfter(sample, lastComma) == 3) {
+                    commaVotes++;
+                } else {
+                    dotVotes++;
+                }
+            } else if (dots == 1 && commas == 0 && digitsAfter(sample, lastDot) != 3) {
+                commaVotes++;
+            }
+        }
+        return dotVotes > 0 && commaVotes == 0 ? DOT_GROUPED : COMMA_GROUPED;
+    }
+
+    BigDecimal parseDecimal(String value) {
+        if (value == null) {
+            return null;
+        }
+        int start = numberStart(value);
+        int end = numberEnd(value, start);
+        if (start >= end) {
+            return null;
+        }
+
+        boolean negative = value.charAt(start) == '-';
+        if (negative) {
+            start++;
+        }
+        long unscaled = 0;
+        int digits = 0;
+        int scale = -1;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (digits == MAX_FAST_DIGITS) {
+                    return parseLongDecimal(value, start, end, negative);
+                }
+                unscaled = unscaled * 10 + (c - '0');
+                digits++;
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (c == decimalSeparator && scale < 0) {
+                scale = 0;
+            } else if (c != groupSeparator || scale >= 0) {
+                return null;
+            }
+        }
+        if (digits == 0) {
+            return null;
+        }
+        return BigDecimal.valueOf(negative ? -unscaled : unscaled, Math.max(scale, 0));
+    }
+
+    Integer parseInteger(String value) {
+        if (value == null) {
+            return null;
+        }
+        int start = numberStart(value);
+        int end = numberEnd(value, start);
+        if (start >= end) {
+            return null;
+        }
+
+        boolean negative = value.charAt(start) == '-';
+        if (negative) {
+            start++;
+        }
+        long result = 0;
+        int digits = 0;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                result = result * 10 + (c - '0');
+                if (result > Integer.MAX_VALUE) {
+                    return null;
+                }
+                digits++;
+            } else if (c != groupSeparator) {
+                return null;
+            }
+        }
+        return digits == 0 ? null : (int) (negative ? -result : result);
+    }
+
+    // Digits and separators only, so BigDecimal cannot reject what is left
+    private BigDecimal parseLongDecimal(String value, int start, int end, boolean negative) {
+        StringBuilder plain = new StringBuilder(end - start + 1);
+        if (negative) {
+            plain.append('-');
+        }
+        boolean seenDecimal = false;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                plain.append(c);
+            } else if (c == decimalSeparator && !seenDecimal) {
+                plain.append('.');
+                seenDecimal = true;
+            } else if (c != groupSeparator || seenDecimal) {
+                return null;
+            }
+        }
+        return new BigDecimal(plain.toString());
+    }
+
+    private static int numberStart(String value) {
+        int start = skipSpaces(value, 0);
+        for (String mark : CURRENCY_MARKS) {
+            if (value.regionMatches(true, start, mark, 0, mark.length())) {
+                return skipSpaces(value, start + mark.length());
+            }
+        }
+        return start;
+    }
+
+    private static int numberEnd(String value, int start) {
+        int end = trimSpaces(value, start, value.length());
+        for (String mark : CURRENCY_MARKS) {
+            int markStart = end - mark.length();
+            if (markStart >= start && value.regionMatches(true, markStart, mark, 0, mark.length())) {
+                return trimSpaces(value, start, markStart);
+            }
+        }
+        return end;
+    }
+
+    private static int skipSpaces(String value, int index) {
+        while (index < value.length() && isSpace(value.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    private static int trimSpaces(String value, int start, int end) {
+        while (end > start && isSpace(value.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+
+    // Spreadsheets often export a no-break space between the number and the currency
+    private static boolean isSpace(char c) {
+        return c <= ' ' || c == '\u00A0';
+    }
+
+    private static int digitsAfter(String value, int index) {
+        int count = 0;
+        for (int i = index + 1; i < value.length() && value.charAt(i) >= '0' && value.charAt(i) <= '9'; i++) {
+            count++;
+        }
+        return count;
+    }
+}
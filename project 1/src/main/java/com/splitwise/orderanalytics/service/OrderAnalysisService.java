@@ -1,16 +1,28 @@
 package com.splitwise.orderanalytics.service;
 
+import com.splitwise.orderanalytics.dto.GroupDimension;
+import com.splitwise.orderanalytics.dto.OrderCursor;
+import com.splitwise.orderanalytics.dto.OrderFilter;
+import com.splitwise.orderanalytics.dto.OrderPage;
 import com.splitwise.orderanalytics.dto.OrderStatistics;
 import com.splitwise.orderanalytics.entity.Order;
 import com.splitwise.orderanalytics.entity.OrderStatus;
+import com.splitwise.orderanalytics.entity.StockMovementReason;
+import com.splitwise.orderanalytics.repository.OrderJdbcRepository;
 import com.splitwise.orderanalytics.repository.OrderRepository;
-import com.splitwise.orderanalytics.repository.ProductRepository;
+import com.splitwise.orderanalytics.repository.OrderSpecifications;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -23,193 +35,402 @@ public class OrderAnalysisService {
     private OrderRepository orderRepository;
 
     @Autowired
-    private ProductRepository productRepository;
+    private ProductStockService productStockService;
+
+    @Autowired
+    private RevenueRollupService revenueRollupService;
+
+    @Autowired
+    private OrderColumnStore orderColumnStore;
+
+    @Autowired
+    private OrderJdbcRepository orderJdbcRepository;
+
+    @Autowired
+    private OrderSketchService orderSketchService;
+
+    @Autowired
+    private DistinctCountService distinctCountService;
+
+    @Autowired
+    private OrderSearchIndex orderSearchIndex;
+
+    @Autowired
+    private DashboardStreamService dashboardStreamService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private static final int RECENT_ORDERS_LIMIT = 10;
+    private static final int SNAPSHOT_ATTEMPTS = 3;
+
+    public static final int DEFAULT_TOP_K = 10;
+
+    @Value("${app.orders.page-size:100}")
+    private int defaultPageSize;
+
+    @Value("${app.orders.max-page-size:1000}")
+    private int maxPageSize;
+
+    // Together these stay well under SQL Server's 2,100 parameters per statement
+    @Value("${app.search.max-candidate-ids:1000}")
+    private int maxCandidateIds;
+
+    @Value("${app.search.max-matched-values:200}")
+    private int maxMatchedValues;
+
+    @Value("${app.statistics.max-top-k:1000}")
+    private int maxTopK;
 
     private boolean isStockDeducted(OrderStatus status) {
         return status == OrderStatus.SHIPPED || status == OrderStatus.DELIVERED;
     }
 
-    private void updateProductStock(String productName, int quantityChange) {
+    private void updateProductStock(String productName, int quantityChange, Long orderId) {
         if (quantityChange == 0)
             return;
-        productRepository.findByName(productName).ifPresent(product -> {
-            product.setStockQuantity(product.getStockQuantity() + quantityChange);
-            productRepository.save(product);
-        });
+        productStockService.adjust(productName, quantityChange, StockMovementReason.ORDER_UPDATE, orderId);
+    }
+
+    /**
+     * @param topK        length of the top product/customer lists, capped at app.statistics.max-top-k
+     * @param dimension   when set, also ranks that dimension's groups by revenue into topGroups
+     * @param approximate estimates the top lists from the sketches. Without it they are exact,
+     *                    from the column store or, while that is off or loading, from the database
+     */
+    @Cacheable(DashboardCacheService.STATISTICS)
+    public OrderStatistics getOverallStatistics(int topK, GroupDimension dimension, boolean approximate) {
+        return computeStatistics(topK, dimension, approximate);
     }
 
-    public OrderStatistics getOverallStatistics() {
-        Long totalOrders = orderRepository.getTotalOrders();
-        if (totalOrders == null)
-            totalOrders = 0L;
+    private OrderStatistics computeStatistics(int topK, GroupDimension dimension, boolean approximate) {
+        int k = Math.max(1, Math.min(topK, maxTopK));
+        // Served from the in-memory column store once it is loaded, otherwise from the database
+        boolean columnar = orderColumnStore.isReady();
+        boolean estimated = approximate && orderSketchService.isReady();
+        Map<String, Long> ordersByStatus = new HashMap<>();
+        Map<String, BigDecimal> revenueByStatus = new HashMap<>();
+        for (OrderStatus status : OrderStatus.values()) {
+            ordersByStatus.put(status.getDisplayName(), 0L);
+            revenueByStatus.put(status.getDisplayName(), BigDecimal.ZERO);
+        }
 
-        BigDecimal totalRevenue = orderRepository.getTotalRevenue();
-        if (totalRevenue == null)
-            totalRevenue = BigDecimal.ZERO;
+        // One grouped scan; the overall totals are rolled up from the per-status rows
+        long totalOrders = 0;
+        BigDecimal totalRevenue = BigDecimal.ZERO;
+        for (Object[] row : columnar ? summarizeByStatusColumnar() : orderRepository.summarizeByStatus()) {
+            OrderStatus status = (OrderStatus) row[0];
+            long count = ((Number) row[1]).longValue();
+            BigDecimal revenue = row[2] != null ? (BigDecimal) row[2] : BigDecimal.ZERO;
+
+            ordersByStatus.put(status.getDisplayName(), count);
+            revenueByStatus.put(status.getDisplayName(), revenue);
+            totalOrders += count;
+            totalRevenue = totalRevenue.add(revenue);
+        }
 
-        BigDecimal averageOrderValue = orderRepository.getAverageOrderValue();
-        if (averageOrderValue == null)
-            averageOrderValue = BigDecimal.ZERO;
+        BigDecimal averageOrderValue = totalOrders > 0
+                ? totalRevenue.divide(BigDecimal.valueOf(totalOrders), 2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
 
-        Map<String, Long> ordersByStatus = getOrdersByStatus();
-        Map<String, BigDecimal> revenueByStatus = getRevenueByStatus();
-        List<OrderStatistics.TopProduct> topProducts = getTopProducts();
-        List<OrderStatistics.TopCustomer> topCustomers = getTopCustomers();
-        List<OrderStatistics.DailyRevenue> dailyRevenue = getDailyRevenue();
-        List<OrderStatistics.MonthlyRevenue> monthlyRevenue = getMonthlyRevenue();
+        List<OrderStatistics.TopProduct> topProducts = estimated ? estimateTopProducts(k) : getTopProducts(columnar, k);
+        List<OrderStatistics.TopCustomer> topCustomers = estimated ? estimateTopCustomers(k) : getTopCustomers(columnar, k);
 
-        return new OrderStatistics(totalOrders, totalRevenue, averageOrderValue,
+        LocalDate today = LocalDate.now();
+        NavigableMap<LocalDate, BigDecimal> revenueByDay = columnar
+                ? orderColumnStore.getRevenueByDay(today.minusMonths(12), today)
+                : revenueRollupService.getRevenueByDay(today.minusMonths(12), today);
+        List<OrderStatistics.DailyRevenue> dailyRevenue = getDailyRevenue(revenueByDay, today.minusDays(30));
+        List<OrderStatistics.MonthlyRevenue> monthlyRevenue = getMonthlyRevenue(revenueByDay);
+
+        OrderStatistics statistics = new OrderStatistics(totalOrders, totalRevenue, averageOrderValue,
                 ordersByStatus, revenueByStatus, topProducts,
                 topCustomers, dailyRevenue, monthlyRevenue);
+        if (dimension != null) {
+            if (estimated && orderSketchService.supports(dimension)) {
+                statistics.setTopGroups(estimateTopGroups(dimension, k));
+            } else {
+                statistics.setTopGroups(columnar
+                        ? orderColumnStore.topGroups(dimension, k, false)
+                        : orderJdbcRepository.findTopGroups(dimension, k));
+            }
+        }
+        statistics.setApproximate(estimated);
+        if (distinctCountService.isReady()) {
+            Map<String, Object> distinct = distinctCountService.count(null, null, null, null);
+            statistics.setDistinctCustomers((Long) distinct.get("distinctCustomers"));
+            statistics.setDistinctProducts((Long) distinct.get("distinctProducts"));
+        }
+        return statistics;
     }
 
-    public List<Order> getFilteredOrders(String startDate, String endDate, String status,
-            String productName, String customerName,
-            String category, String region) {
-        LocalDateTime start = startDate != null && !startDate.isEmpty() ? LocalDateTime.parse(startDate + "T00:00:00")
-                : null;
-        LocalDateTime end = endDate != null && !endDate.isEmpty() ? LocalDateTime.parse(endDate + "T23:59:59") : null;
+    public OrderPage getFilteredOrders(OrderFilter filter, String cursor, Integer pageSize) {
+        int limit = pageSize != null && pageSize > 0 ? Math.min(pageSize, maxPageSize) : defaultPageSize;
 
-        List<Order> orders = orderRepository.findAll();
+        FilterConditions conditions = conditionsFor(filter);
+        if (conditions == null) {
+            return new OrderPage(new ArrayList<>(), null);
+        }
+        Specification<Order> spec = conditions.specification;
+        if (cursor != null && !cursor.isEmpty()) {
+            spec = spec.and(OrderSpecifications.after(OrderCursor.decode(cursor)));
+        }
 
-        if (start != null && end != null) {
-            orders = orders.stream()
-                    .filter(order -> !order.getOrderDate().isBefore(start) && !order.getOrderDate().isAfter(end))
-                    .collect(Collectors.toList());
+        // Fetch one extra row to learn whether another page exists without a COUNT query
+        List<Order> orders = orderRepository.findBy(spec,
+                query -> query.sortBy(OrderSpecifications.NEWEST_FIRST).limit(limit + 1).all());
+
+        String nextCursor = null;
+        if (orders.size() > limit) {
+            orders = new ArrayList<>(orders.subList(0, limit));
+            nextCursor = OrderCursor.after(orders.get(limit - 1)).encode();
         }
+        OrderPage page = new OrderPage(orders, nextCursor);
+        page.setLiteralMatches(conditions.literalMatches);
+        return page;
+    }
 
-        if (status != null && !status.isEmpty()) {
-            try {
-                OrderStatus statusEnum = OrderStatus.valueOf(status.toUpperCase());
-                orders = orders.stream()
-                        .filter(order -> order.getStatus() == statusEnum)
-                        .collect(Collectors.toList());
-            } catch (IllegalArgumentException e) {
-                // Invalid status, ignore filter
+    /** Query conditions for the filter, or null when the search index shows nothing can match. */
+    public Specification<Order> specificationFor(OrderFilter filter) {
+        FilterConditions conditions = conditionsFor(filter);
+        return conditions != null ? conditions.specification : null;
+    }
+
+    private FilterConditions conditionsFor(OrderFilter filter) {
+        if (orderSearchIndex.isReady()) {
+            return indexedConditions(filter);
+        }
+        List<GroupDimension> literal = new ArrayList<>();
+        for (GroupDimension dimension : GroupDimension.values()) {
+            if (filter.getText(dimension) != null) {
+                literal.add(dimension);
             }
         }
+        return new FilterConditions(OrderSpecifications.matching(filter), literal);
+    }
 
-        if (productName != null && !productName.isEmpty()) {
-            orders = orders.stream()
-                    .filter(order -> order.getProductName().toLowerCase().contains(productName.toLowerCase()))
-                    .collect(Collectors.toList());
+    /**
+     * Resolves the text conditions through the search index, which ignores case and diacritics: the
+     * most selective one becomes {@code id IN (...)}, the rest {@code column IN (matching values)},
+     * or, when they match too many values for that, narrow the ids in memory. Only a condition too
+     * broad for all of these falls back to LIKE, which does not fold diacritics. Returns null when
+     * nothing can match.
+     */
+    private FilterConditions indexedConditions(OrderFilter filter) {
+        Map<GroupDimension, OrderSearchIndex.Match> matches = new EnumMap<>(GroupDimension.class);
+        GroupDimension driving = null;
+        for (GroupDimension dimension : GroupDimension.values()) {
+            String text = filter.getText(dimension);
+            if (text == null) {
+                continue;
+            }
+            OrderSearchIndex.Match match = orderSearchIndex.search(dimension, text);
+            if (match.getOrderCount() == 0) {
+                return null;
+            }
+            matches.put(dimension, match);
+            if (driving == null || match.getOrderCount() < matches.get(driving).getOrderCount()) {
+                driving = dimension;
+            }
         }
 
-        if (customerName != null && !customerName.isEmpty()) {
-            orders = orders.stream()
-                    .filter(order -> order.getCustomerName().toLowerCase().contains(customerName.toLowerCase()))
-                    .collect(Collectors.toList());
+        Specification<Order> spec = OrderSpecifications.matching(filter.withoutText());
+        long[] candidates = null;
+        if (driving != null && matches.get(driving).getOrderCount() <= maxCandidateIds) {
+            candidates = orderSearchIndex.orderIds(driving, matches.get(driving));
         }
-
-        if (category != null && !category.isEmpty()) {
-            orders = orders.stream()
-                    .filter(order -> order.getCategory() != null &&
-                            order.getCategory().toLowerCase().contains(category.toLowerCase()))
-                    .collect(Collectors.toList());
+        List<GroupDimension> literal = new ArrayList<>();
+        for (Map.Entry<GroupDimension, OrderSearchIndex.Match> entry : matches.entrySet()) {
+            GroupDimension dimension = entry.getKey();
+            OrderSearchIndex.Match match = entry.getValue();
+            if (dimension == driving && candidates != null) {
+                continue;
+            }
+            if (match.getValues().size() <= maxMatchedValues) {
+                spec = spec.and(OrderSpecifications.valueIn(dimension, match.getValues()));
+            } else if (candidates != null) {
+                candidates = intersect(candidates, orderSearchIndex.orderIds(dimension, match));
+            } else {
+                spec = spec.and(OrderSpecifications.contains(dimension, filter.getText(dimension)));
+                literal.add(dimension);
+            }
         }
 
-        if (region != null && !region.isEmpty()) {
-            orders = orders.stream()
-                    .filter(order -> order.getRegion() != null &&
-                            order.getRegion().toLowerCase().contains(region.toLowerCase()))
-                    .collect(Collectors.toList());
+        if (candidates != null) {
+            if (candidates.length == 0) {
+                return null;
+            }
+            List<Long> ids = new ArrayList<>(candidates.length);
+            for (long id : candidates) {
+                ids.add(id);
+            }
+            spec = spec.and(OrderSpecifications.idIn(ids));
         }
+        return new FilterConditions(spec, literal);
+    }
 
-        return orders;
+    // Both ascending
+    private static long[] intersect(long[] left, long[] right) {
+        long[] result = new long[Math.min(left.length, right.length)];
+        int count = 0;
+        for (int i = 0, j = 0; i < left.length && j < right.length; ) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result[count++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
     }
 
-    private Map<String, Long> getOrdersByStatus() {
-        Map<String, Long> result = new HashMap<>();
-        for (OrderStatus status : OrderStatus.values()) {
-            Long count = orderRepository.countByStatus(status);
-            result.put(status.getDisplayName(), count != null ? count : 0L);
+    /** Query conditions for a filter, and the text fields among them matched literally by LIKE. */
+    private static class FilterConditions {
+        private final Specification<Order> specification;
+        private final List<GroupDimension> literalMatches;
+
+        FilterConditions(Specification<Order> specification, List<GroupDimension> literalMatches) {
+            this.specification = specification;
+            this.literalMatches = literalMatches;
         }
-        return result;
     }
 
-    private Map<String, BigDecimal> getRevenueByStatus() {
-        Map<String, BigDecimal> result = new HashMap<>();
+    private List<Object[]> summarizeByStatusColumnar() {
+        long[][] summary = orderColumnStore.summarizeByStatus();
+        List<Object[]> rows = new ArrayList<>();
         for (OrderStatus status : OrderStatus.values()) {
-            BigDecimal revenue = orderRepository.sumTotalAmountByStatus(status);
-            result.put(status.getDisplayName(), revenue != null ? revenue : BigDecimal.ZERO);
+            long count = summary[0][status.ordinal()];
+            if (count > 0) {
+                rows.add(new Object[] {status, count, OrderColumnStore.toAmount(summary[1][status.ordinal()])});
+            }
         }
-        return result;
+        return rows;
     }
 
-    private List<OrderStatistics.TopProduct> getTopProducts() {
-        List<Object[]> results = orderRepository.findTopSellingProducts();
-        return results.stream()
-                .limit(10)
+    private List<OrderStatistics.TopProduct> getTopProducts(boolean columnar, int k) {
+        if (columnar) {
+            return orderColumnStore.topGroups(GroupDimension.PRODUCT, k, true).stream()
+                    .map(group -> new OrderStatistics.TopProduct(group.getName(), group.getTotalQuantity()))
+                    .collect(Collectors.toList());
+        }
+        return orderRepository.findTopSellingProducts(PageRequest.of(0, k)).stream()
                 .map(result -> new OrderStatistics.TopProduct(
                         (String) result[0],
                         ((Number) result[1]).longValue()))
                 .collect(Collectors.toList());
     }
 
-    private List<OrderStatistics.TopCustomer> getTopCustomers() {
-        List<Object[]> results = orderRepository.findTopCustomersBySpending();
-        return results.stream()
-                .limit(10)
+    private List<OrderStatistics.TopCustomer> getTopCustomers(boolean columnar, int k) {
+        if (columnar) {
+            return orderColumnStore.topGroups(GroupDimension.CUSTOMER, k, false).stream()
+                    .map(group -> new OrderStatistics.TopCustomer(group.getName(), group.getTotalRevenue()))
+                    .collect(Collectors.toList());
+        }
+        return orderRepository.findTopCustomersBySpending(PageRequest.of(0, k)).stream()
                 .map(result -> new OrderStatistics.TopCustomer(
                         (String) result[0],
                         (BigDecimal) result[1]))
                 .collect(Collectors.toList());
     }
 
-    private List<OrderStatistics.DailyRevenue> getDailyRevenue() {
-        LocalDateTime endDate = LocalDateTime.now();
-        LocalDateTime startDate = endDate.minusDays(30);
+    private List<OrderStatistics.TopProduct> estimateTopProducts(int k) {
+        List<OrderStatistics.TopProduct> topProducts = new ArrayList<>();
+        for (OrderSketchService.Estimate estimate : orderSketchService.top(GroupDimension.PRODUCT, k)) {
+            OrderStatistics.TopProduct product = new OrderStatistics.TopProduct(estimate.getKey(), estimate.getQuantity());
+            product.setMaxError(estimate.getQuantityError());
+            topProducts.add(product);
+        }
+        return topProducts;
+    }
+
+    private List<OrderStatistics.TopCustomer> estimateTopCustomers(int k) {
+        List<OrderStatistics.TopCustomer> topCustomers = new ArrayList<>();
+        for (OrderSketchService.Estimate estimate : orderSketchService.top(GroupDimension.CUSTOMER, k)) {
+            OrderStatistics.TopCustomer customer = new OrderStatistics.TopCustomer(estimate.getKey(), estimate.getAmount());
+            customer.setMaxError(estimate.getAmountError());
+            topCustomers.add(customer);
+        }
+        return topCustomers;
+    }
 
-        List<Order> orders = orderRepository.findByOrderDateBetween(startDate, endDate);
-        Map<LocalDate, BigDecimal> totals = new HashMap<>();
-        for (Order order : orders) {
-            LocalDate date = order.getOrderDate().toLocalDate();
-            totals.merge(date, order.getTotalAmount(), BigDecimal::add);
+    // The sketches only weigh revenue, so order count and quantity stay empty
+    private List<OrderStatistics.TopGroup> estimateTopGroups(GroupDimension dimension, int k) {
+        List<OrderStatistics.TopGroup> topGroups = new ArrayList<>();
+        for (OrderSketchService.Estimate estimate : orderSketchService.top(dimension, k)) {
+            OrderStatistics.TopGroup group = new OrderStatistics.TopGroup(estimate.getKey(), null, null, estimate.getAmount());
+            group.setMaxError(estimate.getAmountError());
+            topGroups.add(group);
         }
+        return topGroups;
+    }
 
-        return totals.entrySet().stream()
-                .sorted(Map.Entry.comparingByKey())
+    private List<OrderStatistics.DailyRevenue> getDailyRevenue(NavigableMap<LocalDate, BigDecimal> revenueByDay,
+            LocalDate startDate) {
+        return revenueByDay.tailMap(startDate, true).entrySet().stream()
                 .map(entry -> new OrderStatistics.DailyRevenue(
                         entry.getKey().format(DateTimeFormatter.ISO_LOCAL_DATE),
                         entry.getValue()))
                 .collect(Collectors.toList());
     }
 
-    private List<OrderStatistics.MonthlyRevenue> getMonthlyRevenue() {
-        LocalDateTime endDate = LocalDateTime.now();
-        LocalDateTime startDate = endDate.minusMonths(12);
-
-        List<Order> orders = orderRepository.findByOrderDateBetween(startDate, endDate);
-        Map<YearMonth, BigDecimal> totals = new HashMap<>();
-        for (Order order : orders) {
-            YearMonth month = YearMonth.from(order.getOrderDate());
-            totals.merge(month, order.getTotalAmount(), BigDecimal::add);
+    private List<OrderStatistics.MonthlyRevenue> getMonthlyRevenue(NavigableMap<LocalDate, BigDecimal> revenueByDay) {
+        Map<YearMonth, BigDecimal> totals = new TreeMap<>();
+        for (Map.Entry<LocalDate, BigDecimal> entry : revenueByDay.entrySet()) {
+            totals.merge(YearMonth.from(entry.getKey()), entry.getValue(), BigDecimal::add);
         }
 
         return totals.entrySet().stream()
-                .sorted(Map.Entry.comparingByKey())
                 .map(entry -> new OrderStatistics.MonthlyRevenue(
                         entry.getKey().toString(),
                         entry.getValue()))
                 .collect(Collectors.toList());
     }
 
+    @Cacheable(DashboardCacheService.DASHBOARD)
     public Map<String, Object> getDashboardData() {
         Map<String, Object> dashboardData = new HashMap<>();
 
-        OrderStatistics stats = getOverallStatistics();
-        dashboardData.put("statistics", stats);
+        // The version only counts if no commit landed during the reads; stream deltas after it
+        // apply on top of the snapshot, and a snapshot without one is reloaded on the next message
+        Long version = null;
+        for (int attempt = 0; attempt < SNAPSHOT_ATTEMPTS && version == null; attempt++) {
+            Long before = snapshotVersion();
+
+            // Computed here rather than through the statistics cache, whose entry may predate the version
+            OrderStatistics stats = computeStatistics(DEFAULT_TOP_K, null, false);
+            dashboardData.put("statistics", stats);
+
+            // Top-N read off idx_orders_order_date; the cursor continues through /api/orders
+            OrderPage recentOrders = getFilteredOrders(new OrderFilter(), null, RECENT_ORDERS_LIMIT);
+            dashboardData.put("recentOrders", recentOrders.getOrders());
+            dashboardData.put("recentOrdersCursor", recentOrders.getNextCursor());
 
-        List<Order> recentOrders = orderRepository.findAll();
-        recentOrders.sort((o1, o2) -> o2.getOrderDate().compareTo(o1.getOrderDate()));
-        dashboardData.put("recentOrders", recentOrders.stream().limit(10).collect(Collectors.toList()));
+            if (before != null && dashboardStreamService.isCurrent(before)) {
+                version = before;
+            }
+        }
+        dashboardData.put("version", version);
 
         return dashboardData;
     }
 
+    private Long snapshotVersion() {
+        try {
+            return dashboardStreamService.snapshotVersion();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    @Transactional
     public Order updateOrder(Long id, Order updatedOrder) {
         Order existingOrder = orderRepository.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("Order not found"));
+        Order previousOrder = copyOf(existingOrder);
 
         // Capture old state for inventory tracking
         OrderStatus oldStatus = existingOrder.getStatus();
@@ -259,10 +480,10 @@ public class OrderAnalysisService {
         if (!Objects.equals(oldProductName, existingOrder.getProductName())) {
             // Product changed
             if (isStockDeductedOld) {
-                updateProductStock(oldProductName, oldQuantity);
+                updateProductStock(oldProductName, oldQuantity, id);
             }
             if (isStockDeductedNew) {
-                updateProductStock(existingOrder.getProductName(), -existingOrder.getQuantity());
+                updateProductStock(existingOrder.getProductName(), -existingOrder.getQuantity(), id);
             }
         } else {
             // Product same
@@ -273,17 +494,33 @@ public class OrderAnalysisService {
             if (isStockDeductedNew) {
                 stockChange -= existingOrder.getQuantity();
             }
-            updateProductStock(existingOrder.getProductName(), stockChange);
+            updateProductStock(existingOrder.getProductName(), stockChange, id);
         }
 
-        return orderRepository.save(existingOrder);
+        Order savedOrder = orderRepository.save(existingOrder);
+        revenueRollupService.subtract(List.of(previousOrder));
+        revenueRollupService.add(List.of(savedOrder));
+        eventPublisher.publishEvent(OrdersChangedEvent.updated(previousOrder, savedOrder));
+        return savedOrder;
     }
 
+    @Transactional
     public boolean deleteOrder(Long id) {
-        if (!orderRepository.existsById(id)) {
+        Optional<Order> order = orderRepository.findById(id);
+        if (order.isEmpty()) {
             return false;
         }
-        orderRepository.deleteById(id);
+        orderRepository.delete(order.get());
+        revenueRollupService.subtract(List.of(order.get()));
+        eventPublisher.publishEvent(OrdersChangedEvent.removed(List.of(order.get())));
         return true;
     }
+
+    private Order copyOf(Order order) {
+        Order copy = new Order(order.getOrderCode(), order.getCustomerName(), order.getCustomerEmail(),
+                order.getProductName(), order.getQuantity(), order.getUnitPrice(), order.getTotalAmount(),
+                order.getStatus(), order.getOrderDate(), order.getCategory(), order.getRegion());
+        copy.setId(order.getId());
+        return copy;
+    }
 }
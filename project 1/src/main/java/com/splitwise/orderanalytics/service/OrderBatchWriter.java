@@ -0,0 +1,138 @@
+package com.splitwise.orderanalytics.service;
+
+import com.splitwise.orderanalytics.dto.ImportResult;
+import com.splitwise.orderanalytics.entity.Order;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.Function;
+
+/**
+ * Buffers parsed orders and hands them to the persistence callback one chunk at a time, so an
+ * upload never holds more than {@code chunkSize} orders in memory. Counters may be read from
+ * other threads while an import is running.
+ *
+ * <p>Rows reach {@link UploadMetrics} as each chunk is flushed, and the time spent in the
+ * persistence callback is kept apart so the caller can tell parsing time from writing time.
+ */
+public class OrderBatchWriter implements OrderSink {
+
+    private final int chunkSize;
+    private final Function<List<Order>, ChunkOutcome> chunkPersister;
+    private final UploadMetrics metrics;
+    private final long startNanos = System.nanoTime();
+
+    private List<Order> buffer;
+    private volatile long rowsParsed;
+    private volatile long rowsRejected;
+    private volatile long rowsPersisted;
+    private volatile long rowsUpdated;
+    private volatile long rowsUnchanged;
+    private volatile long chunks;
+    private volatile long persistNanos;
+    private long rejectedSinceFlush;
+    private volatile double progress = -1;
+    private volatile boolean cancelled;
+
+    public OrderBatchWriter(int chunkSize, Function<List<Order>, ChunkOutcome> chunkPersister, UploadMetrics metrics) {
+        this.chunkSize = chunkSize;
+        this.chunkPersister = chunkPersister;
+        this.metrics = metrics;
+        this.buffer = new ArrayList<>(chunkSize);
+    }
+
+    @Override
+    public void accept(Order order) {
+        if (cancelled) {
+            throw new CancellationException("Import cancelled");
+        }
+        buffer.add(order);
+        rowsParsed++;
+        if (buffer.size() >= chunkSize) {
+            flush();
+        }
+    }
+
+    @Override
+    public void reject() {
+        rowsRejected++;
+        rejectedSinceFlush++;
+    }
+
+    @Override
+    public void progress(double fraction) {
+        progress = fraction;
+    }
+
+    public void flush() {
+        if (rejectedSinceFlush > 0) {
+            metrics.rowsRejected(rejectedSinceFlush);
+            rejectedSinceFlush = 0;
+        }
+        if (buffer.isEmpty())
+            return;
+
+        long start = System.nanoTime();
+        ChunkOutcome outcome = chunkPersister.apply(buffer);
+        persistNanos += System.nanoTime() - start;
+        rowsUpdated += outcome.getUpdated();
+        rowsUnchanged += outcome.getUnchanged();
+        metrics.rowsAccepted(buffer.size());
+        rowsPersisted += buffer.size();
+        chunks++;
+        buffer = new ArrayList<>(chunkSize);
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public long getRowsParsed() {
+        return rowsParsed;
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    public long getRowsPersisted() {
+        return rowsPersisted;
+    }
+
+    /** Rows an upsert applied to existing orders; included in {@link #getRowsPersisted}. */
+    public long getRowsUpdated() {
+        return rowsUpdated;
+    }
+
+    /** Rows an upsert found identical to existing orders; included in {@link #getRowsPersisted}. */
+    public long getRowsUnchanged() {
+        return rowsUnchanged;
+    }
+
+    /** @return share of the input consumed, or -1 when the format gives no way to tell */
+    public double getProgress() {
+        return progress;
+    }
+
+    /** Time spent inside the persistence callback, stock update included. */
+    public long getPersistNanos() {
+        return persistNanos;
+    }
+
+    public long getElapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    public ImportResult getResult() {
+        ImportResult result = new ImportResult(rowsPersisted, chunks, getElapsedMillis());
+        result.setRowsRejected(rowsRejected);
+        result.setRowsUpdated(rowsUpdated);
+        result.setRowsUnchanged(rowsUnchanged);
+        return result;
+    }
+}
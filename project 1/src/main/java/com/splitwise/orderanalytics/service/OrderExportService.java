@@ -0,0 +1,134 @@
+package com.splitwise.orderanalytics.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opencsv.CSVWriter;
+import com.splitwise.orderanalytics.dto.OrderFilter;
+import com.splitwise.orderanalytics.entity.Order;
+import com.splitwise.orderanalytics.repository.OrderExportRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes filtered orders straight from a JDBC cursor to the response. Each order is serialized
+ * and detached before the next row is read, so memory stays flat however many rows match, and
+ * the first rows are flushed as soon as they are written.
+ */
+@Service
+public class OrderExportService {
+
+    public enum Format {
+        JSON, CSV
+    }
+
+    // Header names match what the CSV upload recognizes, so an export can be uploaded again
+    private static final String[] CSV_HEADER = {"orderCode", "customerName", "customerEmail", "productName",
+            "quantity", "unitPrice", "totalAmount", "status", "orderDate", "category", "region"};
+
+    private static final DateTimeFormatter CSV_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final int FLUSH_INTERVAL = 1000;
+
+    @Autowired
+    private OrderAnalysisService orderAnalysisService;
+
+    @Autowired
+    private OrderExportRepository orderExportRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.export.fetch-size:1000}")
+    private int fetchSize;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    public OrderExportService(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public void export(OrderFilter filter, Format format, boolean gzip, OutputStream out) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024, true) : out;
+        Specification<Order> spec = orderAnalysisService.specificationFor(filter);
+
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<Order> orders = spec != null ? orderExportRepository.stream(spec, fetchSize) : Stream.empty()) {
+                    if (format == Format.CSV) {
+                        writeCsv(orders.iterator(), target);
+                    } else {
+                        writeJson(orders.iterator(), target);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        if (gzip) {
+            ((GZIPOutputStream) target).finish();
+        }
+        out.flush();
+    }
+
+    private void writeJson(Iterator<Order> orders, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.writeStartArray();
+        long rows = 0;
+        while (orders.hasNext()) {
+            Order order = orders.next();
+            objectMapper.writeValue(generator, order);
+            orderExportRepository.detach(order);
+            if (++rows == 1 || rows % FLUSH_INTERVAL == 0) {
+                generator.flush();
+            }
+        }
+        generator.writeEndArray();
+        generator.flush();
+    }
+
+    private void writeCsv(Iterator<Order> orders, OutputStream out) throws IOException {
+        // Not closed: closing would close the response stream before gzip can finish
+        CSVWriter writer = new CSVWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.writeNext(CSV_HEADER, false);
+        long rows = 0;
+        while (orders.hasNext()) {
+            Order order = orders.next();
+            writer.writeNext(new String[] {
+                    order.getOrderCode(),
+                    order.getCustomerName(),
+                    order.getCustomerEmail(),
+                    order.getProductName(),
+                    String.valueOf(order.getQuantity()),
+                    order.getUnitPrice().toPlainString(),
+                    order.getTotalAmount().toPlainString(),
+                    order.getStatus().name(),
+                    order.getOrderDate().format(CSV_DATE_FORMAT),
+                    order.getCategory(),
+                    order.getRegion()
+            }, false);
+            orderExportRepository.detach(order);
+            if (++rows == 1 || rows % FLUSH_INTERVAL == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+    }
+}
@@ -0,0 +1,394 @@
+package com.splitwise.orderanalytics.service;
+
+import com.splitwise.orderanalytics.dto.GroupDimension;
+import com.splitwise.orderanalytics.entity.Order;
+import com.splitwise.orderanalytics.repository.OrderJdbcRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Substring search over customer, product, category and region that ignores case and Vietnamese
+ * diacritics ("nguyen" finds "Nguyễn"). Each field's distinct values are folded and indexed by
+ * trigram; a query intersects the posting lists of its trigrams and verifies the survivors with
+ * a plain {@code contains}. Every value also keeps the ids of the orders that carry it, so a
+ * match can be handed to SQL as candidate ids instead of a LIKE scan.
+ *
+ * <p>Built from one JDBC scan at startup and maintained from {@link OrdersChangedEvent}s. Values
+ * whose last order is gone stay indexed and simply match no orders.
+ */
+@Service
+public class OrderSearchIndex {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    @Autowired
+    private OrderJdbcRepository orderJdbcRepository;
+
+    @Value("${app.search.enabled:false}")
+    private boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<GroupDimension, FieldIndex> fields = new EnumMap<>(GroupDimension.class);
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            for (GroupDimension dimension : GroupDimension.values()) {
+                fields.put(dimension, new FieldIndex());
+            }
+            orderJdbcRepository.scanAnalyticsColumns(rs -> {
+                long id = rs.getLong("id");
+                for (GroupDimension dimension : GroupDimension.values()) {
+                    fields.get(dimension).add(rs.getString(dimension.getColumn()), id);
+                }
+            });
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("Đã dựng chỉ mục tìm kiếm trong " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrdersChanged(OrdersChangedEvent event) {
+        if (!ready) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Order order : event.getRemoved()) {
+                if (order.getId() != null) {
+                    for (GroupDimension dimension : GroupDimension.values()) {
+                        fields.get(dimension).remove(valueOf(order, dimension), order.getId());
+                    }
+                }
+            }
+            for (Order order : event.getAdded()) {
+                if (order.getId() != null) {
+                    for (GroupDimension dimension : GroupDimension.values()) {
+                        fields.get(dimension).add(valueOf(order, dimension), order.getId());
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Values of the field containing the query, with the number of orders that carry them. */
+    public Match search(GroupDimension dimension, String query) {
+        lock.readLock().lock();
+        try {
+            return fields.get(dimension).search(fold(query));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Ids of the orders behind a match, ascending. */
+    public long[] orderIds(GroupDimension dimension, Match match) {
+        lock.readLock().lock();
+        try {
+            return fields.get(dimension).orderIds(match.valueIds);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Lowercase, without combining marks; đ has no decomposition so it is mapped by hand. */
+    public static String fold(String text) {
+        String decomposed = Normalizer.normalize(text.trim(), Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("")
+                .replace('đ', 'd').replace('Đ', 'D')
+                .toLowerCase(Locale.ROOT);
+    }
+
+    private static String valueOf(Order order, GroupDimension dimension) {
+        switch (dimension) {
+            case PRODUCT:
+                return order.getProductName();
+            case CUSTOMER:
+                return order.getCustomerName();
+            case CATEGORY:
+                return order.getCategory();
+            default:
+                return order.getRegion();
+        }
+    }
+
+    public static class Match {
+        private final int[] valueIds;
+        private final List<String> values;
+        private final long orderCount;
+
+        Match(int[] valueIds, List<String> values, long orderCount) {
+            this.valueIds = valueIds;
+            this.values = values;
+            this.orderCount = orderCount;
+        }
+
+        public List<String> getValues() {
+            return values;
+        }
+
+        public long getOrderCount() {
+            return orderCount;
+        }
+    }
+
+    private static class FieldIndex {
+        private final Map<String, Integer> valueIds = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private final List<String> foldedValues = new ArrayList<>();
+        private final List<LongPostings> orders = new ArrayList<>();
+        private final Map<Long, IntPostings> trigrams = new HashMap<>();
+
+        void add(String value, long orderId) {
+            if (value == null) {
+                return;
+            }
+            Integer valueId = valueIds.get(value);
+            if (valueId == null) {
+                valueId = values.size();
+                valueIds.put(value, valueId);
+                values.add(value);
+                String folded = fold(value);
+                foldedValues.add(folded);
+                orders.add(new LongPostings());
+                for (long trigram : trigramsOf(folded)) {
+                    trigrams.computeIfAbsent(trigram, t -> new IntPostings()).add(valueId);
+                }
+            }
+            orders.get(valueId).add(orderId);
+        }
+
+        void remove(String value, long orderId) {
+            Integer valueId = value != null ? valueIds.get(value) : null;
+            if (valueId != null) {
+                orders.get(valueId).remove(orderId);
+            }
+        }
+
+        Match search(String query) {
+            int[] candidates = query.length() < 3 ? null : candidatesFor(query);
+
+            List<Integer> matched = new ArrayList<>();
+            if (candidates == null) {
+                // Too short for a trigram: check every distinct value
+                for (int valueId = 0; valueId < foldedValues.size(); valueId++) {
+                    if (foldedValues.get(valueId).contains(query)) {
+                        matched.add(valueId);
+                    }
+                }
+            } else {
+                for (int valueId : candidates) {
+                    if (foldedValues.get(valueId).contains(query)) {
+                        matched.add(valueId);
+                    }
+                }
+            }
+
+            int[] ids = new int[matched.size()];
+            List<String> matchedValues = new ArrayList<>(ids.length);
+            long orderCount = 0;
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = matched.get(i);
+                matchedValues.add(values.get(ids[i]));
+                orderCount += orders.get(ids[i]).live;
+            }
+            return new Match(ids, matchedValues, orderCount);
+        }
+
+        long[] orderIds(int[] ids) {
+            int total = 0;
+            for (int valueId : ids) {
+                total += orders.get(valueId).live;
+            }
+            long[] result = new long[total];
+            int offset = 0;
+            for (int valueId : ids) {
+                offset += orders.get(valueId).copyTo(result, offset);
+            }
+            Arrays.sort(result);
+            return result;
+        }
+
+        // Intersects the posting lists of the query's trigrams, shortest first
+        private int[] candidatesFor(String query) {
+            List<IntPostings> lists = new ArrayList<>();
+            for (long trigram : trigramsOf(query)) {
+                IntPostings postings = trigrams.get(trigram);
+                if (postings == null) {
+                    return new int[0];
+                }
+                lists.add(postings);
+            }
+            lists.sort((a, b) -> Integer.compare(a.size, b.size));
+
+            int[] result = Arrays.copyOf(lists.get(0).ids, lists.get(0).size);
+            for (int i = 1; i < lists.size() && result.length > 0; i++) {
+                result = intersect(result, lists.get(i));
+            }
+            return result;
+        }
+
+        private static int[] intersect(int[] sorted, IntPostings postings) {
+            int[] result = new int[Math.min(sorted.length, postings.size)];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < sorted.length && j < postings.size) {
+                if (sorted[i] < postings.ids[j]) {
+                    i++;
+                } else if (sorted[i] > postings.ids[j]) {
+                    j++;
+                } else {
+                    result[count++] = sorted[i];
+                    i++;
+                    j++;
+                }
+            }
+            return Arrays.copyOf(result, count);
+        }
+
+        private static long[] trigramsOf(String folded) {
+            if (folded.length() < 3) {
+                return new long[0];
+            }
+            long[] result = new long[folded.length() - 2];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = ((long) folded.charAt(i) << 32) | ((long) folded.charAt(i + 1) << 16) | folded.charAt(i + 2);
+            }
+            return result;
+        }
+    }
+
+    // Value ids are assigned in increasing order, so appending keeps each list sorted
+    private static class IntPostings {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] == id) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+
+    // Sorted, so an id is found by binary search. Removal only marks the slot and the list is
+    // compacted once half of it is marked; ids arrive mostly ascending, a late one is shifted in
+    private static class LongPostings {
+        private long[] ids = new long[2];
+        private int size;
+        private int live;
+        private BitSet removed;
+
+        void add(long id) {
+            if (size == 0 || ids[size - 1] < id) {
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size * 2);
+                }
+                ids[size++] = id;
+                live++;
+                return;
+            }
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                if (isRemoved(index)) {
+                    removed.clear(index);
+                    live++;
+                }
+                return;
+            }
+            insert(-index - 1, id);
+        }
+
+        void remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0 || isRemoved(index)) {
+                return;
+            }
+            if (removed == null) {
+                removed = new BitSet(size);
+            }
+            removed.set(index);
+            live--;
+            if (live < size / 2) {
+                compact();
+            }
+        }
+
+        /** Copies the live ids, ascending, into {@code target} and returns how many there were. */
+        int copyTo(long[] target, int offset) {
+            if (removed == null || removed.isEmpty()) {
+                System.arraycopy(ids, 0, target, offset, size);
+                return size;
+            }
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (!removed.get(i)) {
+                    target[offset + count++] = ids[i];
+                }
+            }
+            return count;
+        }
+
+        private boolean isRemoved(int index) {
+            return removed != null && removed.get(index);
+        }
+
+        private void insert(int index, long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            if (removed != null) {
+                for (int i = size; i > index; i--) {
+                    removed.set(i, removed.get(i - 1));
+                }
+                removed.clear(index);
+            }
+            ids[index] = id;
+            size++;
+            live++;
+        }
+
+        private void compact() {
+            size = copyTo(ids, 0);
+            removed = null;
+        }
+    }
+}
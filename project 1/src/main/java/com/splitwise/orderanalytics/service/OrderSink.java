@@ -0,0 +1,19 @@
+package com.splitwise.orderanalytics.service;
+
+import com.splitwise.orderanalytics.entity.Order;
+
+import java.util.function.Consumer;
+
+/**
+ * Receives orders from a parser. Besides each decoded order, parsers report rows they had to
+ * reject and, where the format allows it, how far through the file they are.
+ */
+public interface OrderSink extends Consumer<Order> {
+
+    default void reject() {
+    }
+
+    /** @param fraction share of the file consumed so far, between 0 and 1 */
+    default void progress(double fraction) {
+    }
+}
@@ -0,0 +1,183 @@
+package com.splitwise.orderanalytics.service;
+
+import com.splitwise.orderanalytics.dto.GroupDimension;
+import com.splitwise.orderanalytics.entity.Order;
+import com.splitwise.orderanalytics.repository.OrderJdbcRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Approximate top-K for high-cardinality dimensions: products by quantity, customers and
+ * categories by revenue. Each dimension has a {@link SpaceSavingSummary} that names the heavy
+ * hitters and a {@link CountMinSketch} that tightens their estimates, so answering costs the
+ * same however many orders or distinct keys there are.
+ *
+ * <p>Error bounds, for total weight W, m = app.analytics.sketch.capacity counters and a
+ * Count-Min sketch of width w and depth d:
+ * <ul>
+ *   <li>every key heavier than W/m is listed;</li>
+ *   <li>a listed estimate is never below the true value and at most {@code maxError} above it
+ *       (maxError &le; W/m);</li>
+ *   <li>independently, the estimate is within (e/w)&middot;W of the true value with probability
+ *       1 - e^-d.</li>
+ * </ul>
+ * The guarantees are for inserts; edits and deletes are subtracted back, which keeps every
+ * estimate an upper bound.
+ */
+@Service
+public class OrderSketchService {
+
+    @Autowired
+    private OrderJdbcRepository orderJdbcRepository;
+
+    @Value("${app.analytics.sketch.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.analytics.sketch.capacity:1000}")
+    private int capacity;
+
+    @Value("${app.analytics.sketch.width:4096}")
+    private int width;
+
+    @Value("${app.analytics.sketch.depth:5}")
+    private int depth;
+
+    private final Map<GroupDimension, Sketch> sketches = new EnumMap<>(GroupDimension.class);
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        synchronized (this) {
+            sketches.put(GroupDimension.PRODUCT, new Sketch(true));
+            sketches.put(GroupDimension.CUSTOMER, new Sketch(false));
+            sketches.put(GroupDimension.CATEGORY, new Sketch(false));
+
+            orderJdbcRepository.scanAnalyticsColumns(rs -> {
+                long quantity = rs.getInt("quantity");
+                long amount = OrderColumnStore.toMinorUnits(rs.getBigDecimal("total_amount"));
+                sketches.get(GroupDimension.PRODUCT).add(rs.getString("product_name"), quantity, amount);
+                sketches.get(GroupDimension.CUSTOMER).add(rs.getString("customer_name"), quantity, amount);
+                sketches.get(GroupDimension.CATEGORY).add(rs.getString("category"), quantity, amount);
+            });
+            ready = true;
+        }
+        System.out.println("Đã dựng sketch top-K trong " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean supports(GroupDimension dimension) {
+        return sketches.containsKey(dimension);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public synchronized void onOrdersChanged(OrdersChangedEvent event) {
+        if (!ready) {
+            return;
+        }
+        for (Order order : event.getRemoved()) {
+            apply(order, -1);
+        }
+        for (Order order : event.getAdded()) {
+            apply(order, 1);
+        }
+    }
+
+    /** Estimated top {@code k} of a dimension the sketches track, heaviest first. */
+    public synchronized List<Estimate> top(GroupDimension dimension, int k) {
+        Sketch sketch = sketches.get(dimension);
+        List<Estimate> estimates = new ArrayList<>(capacity);
+        // Tightening by the Count-Min estimate can reorder counters, so rank after applying it
+        for (SpaceSavingSummary.Counter counter : sketch.summary.top(capacity)) {
+            long estimate = Math.min(counter.getCount(), sketch.counts.estimate(counter.getKey()));
+            long lowerBound = counter.getCount() - counter.getError();
+            estimates.add(new Estimate(counter.getKey(), estimate, Math.max(0, estimate - lowerBound)));
+        }
+        estimates.sort(Comparator.comparingLong((Estimate estimate) -> estimate.value).reversed());
+        return estimates.size() > k ? new ArrayList<>(estimates.subList(0, k)) : estimates;
+    }
+
+    private void apply(Order order, int sign) {
+        long quantity = (long) sign * order.getQuantity();
+        long amount = sign * OrderColumnStore.toMinorUnits(order.getTotalAmount());
+        sketches.get(GroupDimension.PRODUCT).add(order.getProductName(), quantity, amount);
+        sketches.get(GroupDimension.CUSTOMER).add(order.getCustomerName(), quantity, amount);
+        sketches.get(GroupDimension.CATEGORY).add(order.getCategory(), quantity, amount);
+    }
+
+    private class Sketch {
+        private final boolean byQuantity;
+        private final SpaceSavingSummary summary = new SpaceSavingSummary(capacity);
+        private final CountMinSketch counts = new CountMinSketch(width, depth);
+
+        Sketch(boolean byQuantity) {
+            this.byQuantity = byQuantity;
+        }
+
+        void add(String key, long quantity, long amount) {
+            if (key == null) {
+                return;
+            }
+            long weight = byQuantity ? quantity : amount;
+            if (weight >= 0) {
+                summary.add(key, weight);
+            } else {
+                summary.subtract(key, -weight);
+            }
+            counts.add(key, weight);
+        }
+    }
+
+    /** An estimated weight (quantity, or revenue in minor units) and how far above the truth it can be. */
+    public static class Estimate {
+        private final String key;
+        private final long value;
+        private final long maxError;
+
+        Estimate(String key, long value, long maxError) {
+            this.key = key;
+            this.value = value;
+            this.maxError = maxError;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getQuantity() {
+            return value;
+        }
+
+        public long getQuantityError() {
+            return maxError;
+        }
+
+        public BigDecimal getAmount() {
+            return OrderColumnStore.toAmount(value);
+        }
+
+        public BigDecimal getAmountError() {
+            return OrderColumnStore.toAmount(maxError);
+        }
+    }
+}
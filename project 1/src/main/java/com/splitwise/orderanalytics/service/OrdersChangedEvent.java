@@ -0,0 +1,40 @@
+package com.splitwise.orderanalytics.service;
+
+import com.splitwise.orderanalytics.entity.Order;
+
+import java.util.List;
+
+/**
+ * Published inside every transaction that writes orders. An edit appears as its previous state
+ * in {@code removed} and its new state in {@code added}. Listeners that derive data from orders
+ * should use {@code @TransactionalEventListener} so they only see committed changes.
+ */
+public class OrdersChangedEvent {
+    private final List<Order> added;
+    private final List<Order> removed;
+
+    public OrdersChangedEvent(List<Order> added, List<Order> removed) {
+        this.added = added;
+        this.removed = removed;
+    }
+
+    public static OrdersChangedEvent added(List<Order> orders) {
+        return new OrdersChangedEvent(orders, List.of());
+    }
+
+    public static OrdersChangedEvent removed(List<Order> orders) {
+        return new OrdersChangedEvent(List.of(), orders);
+    }
+
+    public static OrdersChangedEvent updated(Order before, Order after) {
+        return new OrdersChangedEvent(List.of(after), List.of(before));
+    }
+
+    public List<Order> getAdded() {
+        return added;
+    }
+
+    public List<Order> getRemoved() {
+        return removed;
+    }
+}
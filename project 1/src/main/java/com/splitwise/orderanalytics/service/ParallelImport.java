@@ -0,0 +1,229 @@
+package com.splitwise.orderanalytics.service;
+
+import com.splitwise.orderanalytics.dto.FileImportResult;
+import com.splitwise.orderanalytics.entity.Order;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Imports the sources of one upload (the files of a ZIP, the sheets of a workbook) at once. Each
+ * source is parsed by its own task on the shared parse pool, and the parsed rows travel in small
+ * batches through a bounded queue to the thread that called {@link #run}. That thread is the only
+ * one feeding the {@link OrderBatchWriter}, so chunks still commit one after another, and a slow
+ * database makes the parsers wait instead of filling the heap.
+ *
+ * <p>Rows of one source keep their order; sources interleave. A source that fails is recorded in
+ * its {@link FileImportResult} and the others carry on.
+ */
+class ParallelImport {
+
+    private static final Logger log = LoggerFactory.getLogger(ParallelImport.class);
+
+    interface SourceParser {
+        /** @return warnings about the source, e.g. unrecognized columns */
+        List<String> parse(UploadSource source, OrderSink sink) throws Exception;
+    }
+
+    // Small next to the writer's chunks, so parsers hold little while they wait for the queue
+    private static final int BATCH_SIZE = 1000;
+
+    private static final long OFFER_TIMEOUT_MS = 200;
+
+    private final OrderBatchWriter writer;
+    private final BlockingQueue<Batch> queue;
+    private final List<SourceSink> sinks = new ArrayList<>();
+    private final long totalBytes;
+
+    private volatile boolean stopped;
+
+    ParallelImport(List<UploadSource> sources, OrderBatchWriter writer, int queueCapacity) {
+        this.writer = writer;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        long total = 0;
+        for (UploadSource source : sources) {
+            SourceSink sink = new SourceSink(source, sizeOf(source));
+            sinks.add(sink);
+            total += sink.bytes;
+        }
+        this.totalBytes = total;
+    }
+
+    /**
+     * Parses every source on {@code pool} and persists their rows on the calling thread.
+     *
+     * @return one result per source, in the order the sources were given
+     * @throws CancellationException when the upload is cancelled
+     */
+    List<FileImportResult> run(Executor pool, SourceParser parser) {
+        // Largest first, so a big file does not start last and finish alone
+        List<SourceSink> bySize = new ArrayList<>(sinks);
+        bySize.sort(Comparator.comparingLong((SourceSink sink) -> sink.bytes).reversed());
+        try {
+            for (SourceSink sink : bySize) {
+                pool.execute(() -> parse(sink, parser));
+            }
+        } catch (RejectedExecutionException e) {
+            stopped = true;
+            throw e;
+        }
+
+        int remaining = sinks.size();
+        try {
+            while (remaining > 0) {
+                Batch batch = queue.take();
+                if (writer.isCancelled()) {
+                    throw new CancellationException("Import cancelled");
+                }
+                for (Order order : batch.orders) {
+                    writer.accept(order);
+                }
+                for (int i = 0; i < batch.rejected; i++) {
+                    writer.reject();
+                }
+                writer.progress(progress());
+                if (batch.last) {
+                    remaining--;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopped = true;
+            throw new CancellationException("Import interrupted");
+        } catch (RuntimeException e) {
+            stopped = true;
+            throw e;
+        }
+
+        List<FileImportResult> results = new ArrayList<>(sinks.size());
+        for (SourceSink sink : sinks) {
+            results.add(sink.result);
+        }
+        return results;
+    }
+
+    private void parse(SourceSink sink, SourceParser parser) {
+        if (stopped) {
+            return;
+        }
+        try {
+            sink.result.setWarnings(parser.parse(sink.source, sink));
+        } catch (CancellationException e) {
+            // The writer thread is already stopping
+        } catch (Exception e) {
+            sink.result.setError(e.getMessage() != null ? e.getMessage() : e.toString());
+            log.warn("Lỗi khi đọc {}", sink.source.getName(), e);
+        } finally {
+            sink.result.setRowsParsed(sink.parsed);
+            sink.result.setRowsRejected(sink.rejectedTotal);
+            sink.progress = 1.0;
+            try {
+                // Always sent, so the writer thread knows this source is done even after a failure
+                sink.handOff(true);
+            } catch (CancellationException e) {
+                // Nobody is waiting any more
+            }
+        }
+    }
+
+    // Share of all input consumed, each source weighted by its file size
+    private double progress() {
+        if (totalBytes == 0) {
+            return -1;
+        }
+        double done = 0;
+        for (SourceSink sink : sinks) {
+            done += sink.bytes * Math.max(sink.progress, 0);
+        }
+        return done / totalBytes;
+    }
+
+    private static long sizeOf(UploadSource source) {
+        try {
+            return Files.size(source.getFile());
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static class Batch {
+        private final List<Order> orders;
+        private final int rejected;
+        private final boolean last;
+
+        Batch(List<Order> orders, int rejected, boolean last) {
+            this.orders = orders;
+            this.rejected = rejected;
+            this.last = last;
+        }
+    }
+
+    // Used by one parse task only; the writer thread reads just the volatile progress
+    private class SourceSink implements OrderSink {
+        private final UploadSource source;
+        private final long bytes;
+        private final FileImportResult result;
+
+        private List<Order> buffer = new ArrayList<>(BATCH_SIZE);
+        private int rejected;
+        private long parsed;
+        private long rejectedTotal;
+        private volatile double progress = -1;
+
+        SourceSink(UploadSource source, long bytes) {
+            this.source = source;
+            this.bytes = bytes;
+            this.result = new FileImportResult(source.getName());
+        }
+
+        @Override
+        public void accept(Order order) {
+            if (stopped || writer.isCancelled()) {
+                throw new CancellationException("Import cancelled");
+            }
+            buffer.add(order);
+            parsed++;
+            if (buffer.size() >= BATCH_SIZE) {
+                handOff(false);
+            }
+        }
+
+        @Override
+        public void reject() {
+            rejected++;
+            rejectedTotal++;
+        }
+
+        @Override
+        public void progress(double fraction) {
+            progress = fraction;
+        }
+
+        void handOff(boolean last) {
+            Batch batch = new Batch(buffer, rejected, last);
+            buffer = new ArrayList<>(BATCH_SIZE);
+            rejected = 0;
+            try {
+                while (!queue.offer(batch, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    if (stopped) {
+                        throw new CancellationException("Import stopped");
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Import interrupted");
+            }
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.splitwise.orderanalytics.service;
+
+import com.splitwise.orderanalytics.entity.Product;
+import com.splitwise.orderanalytics.entity.StockMovement;
+import com.splitwise.orderanalytics.entity.StockMovementReason;
+import com.splitwise.orderanalytics.repository.ProductJdbcRepository;
+import com.splitwise.orderanalytics.repository.ProductRepository;
+import com.splitwise.orderanalytics.repository.StockMovementJdbcRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every stock change made by this process goes through here and is appended to the
+ * {@code stock_movements} ledger; products are not updated on the write path at all, so uploads and
+ * edits of a popular product never queue on its row. {@code products.stock_quantity} is a snapshot
+ * that a background compaction moves forward, and current stock is that snapshot plus the movements
+ * not yet folded into it.
+ *
+ * <p>Inside a transaction the movements are only collected, netted per product, reason and order,
+ * and inserted as one batch just before commit.
+ */
+@Service
+public class ProductStockService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductStockService.class);
+
+    // Keeps IN lists well under SQL Server's 2,100 parameter limit, and compaction's row locks
+    // under the 5,000 at which SQL Server escalates to a table lock
+    private static final int PRODUCT_LOOKUP_BATCH = 1000;
+    private static final int COMPACTION_BATCH = 1000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductJdbcRepository productJdbcRepository;
+
+    @Autowired
+    private StockMovementJdbcRepository stockMovementJdbcRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final ScheduledExecutorService compactor;
+
+    public ProductStockService(@Value("${app.stock.compaction-interval:PT1M}") Duration compactionInterval) {
+        this.compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stock-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        compactor.scheduleWithFixedDelay(this::compactQuietly, compactionInterval.toMillis(),
+                compactionInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        compactor.shutdownNow();
+    }
+
+    /** Adds {@code delta} to the stock of the named product; an unknown product is ignored. */
+    public void adjust(String productName, int delta, StockMovementReason reason, Long orderId) {
+        adjust(Map.of(productName, delta), reason, orderId);
+    }
+
+    /**
+     * @param deltasByName stock change per product name. Names match case-insensitively, as
+     *                     under SQL Server's default collation; unknown products are ignored.
+     */
+    public void adjust(Map<String, Integer> deltasByName, StockMovementReason reason) {
+        adjust(deltasByName, reason, null);
+    }
+
+    private void adjust(Map<String, Integer> deltasByName, StockMovementReason reason, Long orderId) {
+        Map<String, Integer> deltas = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        deltasByName.forEach((name, delta) -> {
+            if (name != null) {
+                deltas.merge(name, delta, Integer::sum);
+            }
+        });
+        deltas.values().removeIf(delta -> delta == 0);
+        if (deltas.isEmpty())
+            return;
+
+        List<StockMovement> movements = new ArrayList<>();
+        List<String> names = new ArrayList<>(deltas.keySet());
+        for (int i = 0; i < names.size(); i += PRODUCT_LOOKUP_BATCH) {
+            List<String> batch = names.subList(i, Math.min(i + PRODUCT_LOOKUP_BATCH, names.size()));
+            for (Product product : productRepository.findByNameIn(batch)) {
+                Integer delta = deltas.get(product.getName());
+                if (delta != null) {
+                    movements.add(new StockMovement(product.getId(), delta, reason, orderId));
+                }
+            }
+        }
+        record(movements);
+    }
+
+    public void adjustById(Long productId, int delta, StockMovementReason reason) {
+        if (delta != 0) {
+            record(List.of(new StockMovement(productId, delta, reason, null)));
+        }
+    }
+
+    /**
+     * Sets the stock to {@code quantity} by recording the difference as a stock count. Counts of
+     * one product run one at a time, holding its row lock; deltas recorded meanwhile are kept on
+     * top of the count.
+     *
+     * @param expected when not null, the stock the caller last saw; a different current stock
+     *                 fails with {@link OptimisticLockingFailureException}
+     * @return the new stock, or null when there is no such product
+     */
+    @Transactional
+    public Integer setStock(Long productId, int quantity, Integer expected) {
+        if (!productJdbcRepository.lock(productId)) {
+            return null;
+        }
+        int current = productJdbcRepository.currentStock(productId);
+        if (expected != null && expected != current) {
+            throw new OptimisticLockingFailureException("Stock of product " + productId + " is " + current
+                    + ", not " + expected);
+        }
+        adjustById(productId, quantity - current, StockMovementReason.STOCK_COUNT);
+        return quantity;
+    }
+
+    // The read-only transactions below hand the request's open-in-view connection to JdbcTemplate,
+    // which would otherwise take a second one from the pool
+
+    /** @return null when there is no such product */
+    @Transactional(readOnly = true)
+    public Integer currentStock(Long productId) {
+        return productJdbcRepository.currentStock(productId);
+    }
+
+    /** Replaces each product's snapshot stock with its current stock, for display. */
+    @Transactional(readOnly = true)
+    public void fillCurrentStock(List<Product> products) {
+        Map<Long, Integer> stocks = productJdbcRepository.currentStocks();
+        for (Product product : products) {
+            Integer stock = stocks.get(product.getId());
+            if (stock != null) {
+                product.setStockQuantity(stock);
+            }
+        }
+    }
+
+    /**
+     * Stock at a past moment. The ledger starts when it was introduced, so earlier moments get the
+     * stock products had at that point.
+     *
+     * @return null when there is no such product
+     */
+    @Transactional(readOnly = true)
+    public Integer stockAt(Long productId, LocalDateTime at) {
+        return productJdbcRepository.stockAt(productId, at);
+    }
+
+    /**
+     * Folds committed movements into the products' snapshots, one short transaction per batch.
+     * Safe to run from several threads or processes at once: each movement is claimed by exactly
+     * one of them.
+     *
+     * @return the number of movements folded
+     */
+    public int compact() {
+        int total = 0;
+        int folded;
+        do {
+            folded = transactionTemplate.execute(status -> compactBatch());
+            total += folded;
+        } while (folded == COMPACTION_BATCH);
+        return total;
+    }
+
+    // Products are locked in id order before their movements are claimed: the order setStock takes
+    // them in, so a compaction and a stock count wait on each other instead of deadlocking
+    private int compactBatch() {
+        SortedSet<Long> productIds = new TreeSet<>(stockMovementJdbcRepository.unappliedProductIds(COMPACTION_BATCH));
+        if (productIds.isEmpty())
+            return 0;
+
+        productJdbcRepository.lockAll(productIds);
+        List<StockMovement> movements = stockMovementJdbcRepository.claimUnapplied(COMPACTION_BATCH, productIds);
+        SortedMap<Long, Integer> deltasById = new TreeMap<>();
+        for (StockMovement movement : movements) {
+            deltasById.merge(movement.getProductId(), movement.getDelta(), Integer::sum);
+        }
+        deltasById.values().removeIf(delta -> delta == 0);
+        productJdbcRepository.adjustStock(deltasById);
+        return movements.size();
+    }
+
+    private void compactQuietly() {
+        try {
+            long start = System.currentTimeMillis();
+            int folded = compact();
+            if (folded > 0) {
+                log.debug("Đã gộp {} biến động tồn kho vào sản phẩm trong {} ms", folded,
+                        System.currentTimeMillis() - start);
+            }
+        } catch (PessimisticLockingFailureException e) {
+            // Chosen as a deadlock victim or timed out on a lock; the next run retries
+            log.debug("Gộp biến động tồn kho bị hoãn do tranh chấp khóa", e);
+        } catch (Exception e) {
+            // Left for the next run; until then the tail just stays longer
+            log.warn("Lỗi khi gộp biến động tồn kho", e);
+        }
+    }
+
+    private void record(List<StockMovement> movements) {
+        if (movements.isEmpty())
+            return;
+
+        // Appended with the caller's transaction, or in one of its own
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            transactionTemplate.executeWithoutResult(status -> record(movements));
+            return;
+        }
+        pendingMovements().add(movements);
+    }
+
+    // Looked up among the transaction's synchronizations, which Spring suspends with the transaction
+    private PendingMovements pendingMovements() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingMovements pending && pending.owner() == this) {
+                return pending;
+            }
+        }
+        PendingMovements pending = new PendingMovements();
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return pending;
+    }
+
+    private static final class MovementKey {
+        private final Long productId;
+        private final StockMovementReason reason;
+        private final Long orderId;
+
+        MovementKey(StockMovement movement) {
+            this.productId = movement.getProductId();
+            this.reason = movement.getReason();
+            this.orderId = movement.getOrderId();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof MovementKey key && productId.equals(key.productId)
+                    && reason == key.reason && Objects.equals(orderId, key.orderId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(productId, reason, orderId);
+        }
+    }
+
+    // Collects one transaction's movements and appends them, netted, just before it commits
+    private class PendingMovements implements TransactionSynchronization {
+        private final Map<MovementKey, StockMovement> movements = new LinkedHashMap<>();
+
+        ProductStockService owner() {
+            return ProductStockService.this;
+        }
+
+        void add(List<StockMovement> added) {
+            for (StockMovement movement : added) {
+                StockMovement existing = movements.putIfAbsent(new MovementKey(movement), movement);
+                if (existing != null) {
+                    existing.setDelta(existing.getDelta() + movement.getDelta());
+                }
+            }
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            LocalDateTime now = LocalDateTime.now();
+            List<StockMovement> netted = new ArrayList<>(movements.size());
+            for (StockMovement movement : movements.values()) {
+                if (movement.getDelta() != 0) {
+                    movement.setCreatedAt(now);
+                    netted.add(movement);
+                }
+            }
+            stockMovementJdbcRepository.append(netted);
+        }
+    }
+}
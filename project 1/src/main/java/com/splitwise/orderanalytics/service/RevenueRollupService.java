@@ -0,0 +1,113 @@
+package com.splitwise.orderanalytics.service;
+
+import com.splitwise.orderanalytics.entity.Order;
+import com.splitwise.orderanalytics.repository.RevenueRollupJdbcRepository;
+import com.splitwise.orderanalytics.repository.RevenueRollupJdbcRepository.Delta;
+import com.splitwise.orderanalytics.repository.RevenueRollupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Maintains revenue_rollup: order count and revenue per (day, status, category, region). Writers
+ * call {@link #add}/{@link #subtract} inside their own transaction so the rollup commits or rolls
+ * back with the orders it describes.
+ */
+@Service
+public class RevenueRollupService {
+
+    @Autowired
+    private RevenueRollupRepository revenueRollupRepository;
+
+    @Autowired
+    private RevenueRollupJdbcRepository revenueRollupJdbcRepository;
+
+    private final TransactionTemplate newTransaction;
+
+    public RevenueRollupService(PlatformTransactionManager transactionManager) {
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void add(Collection<Order> orders) {
+        apply(orders, 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void subtract(Collection<Order> orders) {
+        apply(orders, -1);
+    }
+
+    @Transactional
+    public int rebuild() {
+        return revenueRollupJdbcRepository.rebuild();
+    }
+
+    @Transactional(readOnly = true)
+    public NavigableMap<LocalDate, BigDecimal> getRevenueByDay(LocalDate startDate, LocalDate endDate) {
+        NavigableMap<LocalDate, BigDecimal> totals = new TreeMap<>();
+        for (Object[] row : revenueRollupRepository.sumRevenueByDate(startDate, endDate)) {
+            totals.put((LocalDate) row[0], (BigDecimal) row[1]);
+        }
+        return totals;
+    }
+
+    private void apply(Collection<Order> orders, int sign) {
+        Map<List<Object>, Delta> deltas = new LinkedHashMap<>();
+        for (Order order : orders) {
+            LocalDate date = order.getOrderDate().toLocalDate();
+            String status = order.getStatus().name();
+            String category = order.getCategory() != null ? order.getCategory() : "";
+            String region = order.getRegion() != null ? order.getRegion() : "";
+
+            BigDecimal revenue = order.getTotalAmount();
+            deltas.computeIfAbsent(List.of(date, status, category, region), k -> new Delta(date, status, category, region))
+                    .add(sign, sign > 0 ? revenue : revenue.negate());
+        }
+
+        List<Delta> pending = new ArrayList<>(deltas.values());
+        pending.removeIf(Delta::isZero);
+        if (pending.isEmpty())
+            return;
+
+        List<Delta> missing = revenueRollupJdbcRepository.addToExisting(pending);
+        if (!missing.isEmpty()) {
+            createKeys(missing);
+            revenueRollupJdbcRepository.addToExisting(missing);
+        }
+    }
+
+    /**
+     * Inserts zero rows for new keys in their own transactions, so two writers racing on the same
+     * new key cannot double count: the loser just finds the row and adds to it.
+     */
+    private void createKeys(List<Delta> keys) {
+        try {
+            newTransaction.executeWithoutResult(status -> revenueRollupJdbcRepository.insertEmpty(keys));
+        } catch (DuplicateKeyException e) {
+            for (Delta key : keys) {
+                try {
+                    newTransaction.executeWithoutResult(status -> revenueRollupJdbcRepository.insertEmpty(List.of(key)));
+                } catch (DuplicateKeyException ignored) {
+                    // Created concurrently by another writer
+                }
+            }
+        }
+    }
+}
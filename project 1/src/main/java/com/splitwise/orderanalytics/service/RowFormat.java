@@ -0,0 +1,117 @@
+package com.splitwise.orderanalytics.service;
+
+import com.splitwise.orderanalytics.entity.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The value formats of one upload, fixed by sampling its first rows: the date layout, the number
+ * style and the status spellings it uses. Rows after the sample are decoded against these choices
+ * directly; a value that does not fit (a stray date layout, a new status spelling) falls back to
+ * the general parsers, so mixed files still load.
+ *
+ * <p>Not thread-safe: each upload builds its own.
+ */
+public final class RowFormat {
+
+    // Bounds the status cache when a file has free-text statuses
+    private static final int MAX_STATUS_SPELLINGS = 256;
+
+    private final DatePattern datePattern;
+    private final NumberStyle numberStyle;
+    private final Function<String, OrderStatus> statusResolver;
+    private final Map<String, OrderStatus> statuses = new HashMap<>();
+
+    private RowFormat(DatePattern datePattern, NumberStyle numberStyle,
+            Function<String, OrderStatus> statusResolver) {
+        this.datePattern = datePattern;
+        this.numberStyle = numberStyle;
+        this.statusResolver = statusResolver;
+    }
+
+    /**
+     * @param dates          sampled order dates
+     * @param numbers        sampled quantities and amounts
+     * @param statuses       sampled statuses
+     * @param statusResolver the general status parser, used once per distinct spelling
+     */
+    public static RowFormat sniff(List<String> dates, List<String> numbers, List<String> statuses,
+            Function<String, OrderStatus> statusResolver) {
+        RowFormat format = new RowFormat(detectDatePattern(dates), NumberStyle.detect(numbers), statusResolver);
+        for (String status : statuses) {
+            format.status(status);
+        }
+        return format;
+    }
+
+    /** The layout that reads every sampled date, or failing that the most of them. */
+    private static DatePattern detectDatePattern(List<String> dates) {
+        DatePattern best = null;
+        int bestCount = 0;
+        int sampled = 0;
+        for (String date : dates) {
+            if (date != null && !date.isBlank()) {
+                sampled++;
+            }
+        }
+        for (DatePattern pattern : DatePattern.values()) {
+            int count = 0;
+            for (String date : dates) {
+                if (pattern.parse(date) != null) {
+                    count++;
+                }
+            }
+            if (count == sampled && count > 0) {
+                return pattern;
+            }
+            if (count > bestCount) {
+                best = pattern;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    /** @return null for a blank or unreadable date; the caller decides the default */
+    public LocalDateTime date(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        LocalDateTime date = datePattern != null ? datePattern.parse(value) : null;
+        return date != null ? date : DatePattern.parseAny(value);
+    }
+
+    public Integer integer(String value) {
+        return numberStyle.parseInteger(value);
+    }
+
+    public BigDecimal decimal(String value) {
+        return numberStyle.parseDecimal(value);
+    }
+
+    public OrderStatus status(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        OrderStatus status = statuses.get(value);
+        if (status == null && !statuses.containsKey(value)) {
+            status = statusResolver.apply(value);
+            if (statuses.size() < MAX_STATUS_SPELLINGS) {
+                statuses.put(value, status);
+            }
+        }
+        return status;
+    }
+
+    @Override
+    public String toString() {
+        return "ngày " + (datePattern != null ? datePattern.getPattern() : "không xác định")
+                + ", số " + numberStyle.getExample()
+                + ", " + statuses.size() + " cách ghi trạng thái";
+    }
+}
@@ -0,0 +1,163 @@
+package com.splitwise.orderanalytics.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Weighted Space-Saving heavy-hitter summary over a fixed number of counters. When a new key
+ * arrives and every counter is taken, the smallest counter is handed to it and keeps its old
+ * count as the new key's error.
+ *
+ * <p>Guarantees for a stream of total weight W and m counters: any key whose true weight exceeds
+ * W/m is monitored, and a monitored key's count over-estimates its true weight by at most its
+ * recorded error, which is itself at most W/m.
+ */
+class SpaceSavingSummary {
+
+    private final int capacity;
+    private final Map<String, Integer> slots;
+    private final String[] keys;
+    private final long[] counts;
+    private final long[] errors;
+
+    // Min-heap of slots by count, with each slot's position in the heap
+    private final int[] heap;
+    private final int[] heapIndex;
+
+    private int size;
+    private long totalWeight;
+
+    SpaceSavingSummary(int capacity) {
+        this.capacity = capacity;
+        this.slots = new HashMap<>(capacity * 2);
+        this.keys = new String[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.heap = new int[capacity];
+        this.heapIndex = new int[capacity];
+    }
+
+    void add(String key, long weight) {
+        totalWeight += weight;
+
+        Integer slot = slots.get(key);
+        if (slot != null) {
+            counts[slot] += weight;
+            siftDown(heapIndex[slot]);
+        } else if (size < capacity) {
+            int free = size++;
+            keys[free] = key;
+            counts[free] = weight;
+            errors[free] = 0;
+            heap[free] = free;
+            heapIndex[free] = free;
+            slots.put(key, free);
+            siftUp(free);
+        } else {
+            int min = heap[0];
+            slots.remove(keys[min]);
+            keys[min] = key;
+            errors[min] = counts[min];
+            counts[min] += weight;
+            slots.put(key, min);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Takes back weight added earlier. A monitored count stays an over-estimate; an unmonitored key
+     * only lowers the stream total.
+     */
+    void subtract(String key, long weight) {
+        totalWeight -= weight;
+
+        Integer slot = slots.get(key);
+        if (slot != null) {
+            counts[slot] = Math.max(0, counts[slot] - weight);
+            errors[slot] = Math.min(errors[slot], counts[slot]);
+            siftUp(heapIndex[slot]);
+        }
+    }
+
+    List<Counter> top(int k) {
+        List<Counter> counters = new ArrayList<>(size);
+        for (int slot = 0; slot < size; slot++) {
+            counters.add(new Counter(keys[slot], counts[slot], errors[slot]));
+        }
+        counters.sort(Comparator.comparingLong(Counter::getCount).reversed());
+        return counters.size() > k ? new ArrayList<>(counters.subList(0, k)) : counters;
+    }
+
+    long getTotalWeight() {
+        return totalWeight;
+    }
+
+    /** Upper bound on the weight of any key that is not monitored. */
+    long getUnmonitoredBound() {
+        return size < capacity ? 0 : counts[heap[0]];
+    }
+
+    private void siftUp(int position) {
+        int slot = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (counts[heap[parent]] <= counts[slot]) {
+                break;
+            }
+            place(heap[parent], position);
+            position = parent;
+        }
+        place(slot, position);
+    }
+
+    private void siftDown(int position) {
+        int slot = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && counts[heap[child + 1]] < counts[heap[child]]) {
+                child++;
+            }
+            if (counts[slot] <= counts[heap[child]]) {
+                break;
+            }
+            place(heap[child], position);
+            position = child;
+        }
+        place(slot, position);
+    }
+
+    private void place(int slot, int position) {
+        heap[position] = slot;
+        heapIndex[slot] = position;
+    }
+
+    static class Counter {
+        private final String key;
+        private final long count;
+        private final long error;
+
+        Counter(String key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+
+        String getKey() {
+            return key;
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        long getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.splitwise.orderanalytics.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.splitwise.orderanalytics.dto.FileImportResult;
+import com.splitwise.orderanalytics.dto.ImportResult;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * State of one background upload. Counters are read live from the job's {@link OrderBatchWriter}
+ * while it runs, so polling never touches the database.
+ */
+public class UploadJob {
+
+    public enum State {
+        QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED
+    }
+
+    private final String id;
+    private final String fileName;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+
+    private volatile State state = State.QUEUED;
+    private volatile OrderBatchWriter writer;
+    private volatile boolean cancelRequested;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String message;
+    private volatile ImportResult result;
+    private volatile long elapsedMillis;
+
+    public UploadJob(String id, String fileName) {
+        this.id = id;
+        this.fileName = fileName;
+    }
+
+    synchronized boolean start(OrderBatchWriter writer) {
+        if (cancelRequested) {
+            finish(State.CANCELLED, "Đã hủy trước khi bắt đầu");
+            return false;
+        }
+        this.writer = writer;
+        this.startedAt = LocalDateTime.now();
+        this.state = State.RUNNING;
+        return true;
+    }
+
+    synchronized void cancel() {
+        cancelRequested = true;
+        if (writer != null) {
+            writer.cancel();
+        }
+    }
+
+    void complete(ImportResult result) {
+        this.result = result;
+        finish(State.COMPLETED, "Tải lên và xử lý file thành công");
+    }
+
+    void finish(State state, String message) {
+        if (writer != null) {
+            this.elapsedMillis = writer.getElapsedMillis();
+        }
+        this.message = message;
+        this.finishedAt = LocalDateTime.now();
+        this.state = state;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isFinished() {
+        return state != State.QUEUED && state != State.RUNNING;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public long getRowsParsed() {
+        return writer != null ? writer.getRowsParsed() : 0;
+    }
+
+    public long getRowsPersisted() {
+        return writer != null ? writer.getRowsPersisted() : 0;
+    }
+
+    public long getRowsUpdated() {
+        return writer != null ? writer.getRowsUpdated() : 0;
+    }
+
+    public long getRowsUnchanged() {
+        return writer != null ? writer.getRowsUnchanged() : 0;
+    }
+
+    public long getRowsRejected() {
+        return writer != null ? writer.getRowsRejected() : 0;
+    }
+
+    public double getRowsPerSecond() {
+        if (writer == null)
+            return 0;
+        long elapsed = isFinished() ? elapsedMillis : writer.getElapsedMillis();
+        return elapsed > 0 ? writer.getRowsPersisted() * 1000.0 / elapsed : 0;
+    }
+
+    /** @return share of the file processed, or null while unknown */
+    public Double getProgress() {
+        if (state == State.COMPLETED)
+            return 1.0;
+        double progress = writer != null ? writer.getProgress() : -1;
+        return progress >= 0 ? progress : null;
+    }
+
+    /** @return estimated seconds remaining, extrapolated from progress so far, or null while unknown */
+    public Long getEtaSeconds() {
+        if (state != State.RUNNING)
+            return null;
+        Double progress = getProgress();
+        if (progress == null || progress <= 0)
+            return null;
+        double elapsedSeconds = writer.getElapsedMillis() / 1000.0;
+        return Math.round(elapsedSeconds * (1 - progress) / progress);
+    }
+
+    public List<String> getWarnings() {
+        return result != null ? result.getWarnings() : List.of();
+    }
+
+    /** Per file (and per sheet) outcome once the job has completed. */
+    public List<FileImportResult> getFiles() {
+        return result != null ? result.getFiles() : List.of();
+    }
+
+    @JsonIgnore
+    public ImportResult getResult() {
+        return result;
+    }
+}
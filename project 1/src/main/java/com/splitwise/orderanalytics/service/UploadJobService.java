@@ -0,0 +1,151 @@
+package com.splitwise.orderanalytics.service;
+
+import com.opencsv.exceptions.CsvValidationException;
+import com.splitwise.orderanalytics.dto.ImportResult;
+import com.splitwise.orderanalytics.dto.UploadMode;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs uploads in the background. The request thread only stages the file to local disk and
+ * queues a job; a bounded worker pool parses and persists it, so a slow upload never holds a
+ * servlet thread and a client that disconnects does not abort the import.
+ */
+@Service
+public class UploadJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadJobService.class);
+
+    @Autowired
+    private FileUploadService fileUploadService;
+
+    private final Path stagingDir;
+    private final Duration retention;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, UploadJob> jobs = new ConcurrentHashMap<>();
+
+    public UploadJobService(@Value("${app.upload.staging-dir:${java.io.tmpdir}/order-uploads}") String stagingDir,
+            @Value("${app.upload.workers:2}") int workers,
+            @Value("${app.upload.queue-capacity:20}") int queueCapacity,
+            @Value("${app.upload.job-retention:PT1H}") Duration retention) throws IOException {
+        this.stagingDir = Files.createDirectories(Paths.get(stagingDir));
+        this.retention = retention;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "upload-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * @throws RejectedExecutionException when the queue is full
+     */
+    public UploadJob submit(MultipartFile file, UploadMode mode) throws IOException {
+        evictExpiredJobs();
+
+        String jobId = UUID.randomUUID().toString();
+        String fileName = file.getOriginalFilename();
+        Path stagedFile = stagingDir.resolve(jobId + extensionOf(fileName));
+        file.transferTo(stagedFile);
+
+        UploadJob job = new UploadJob(jobId, fileName);
+        jobs.put(jobId, job);
+        try {
+            executor.execute(() -> run(job, stagedFile, mode));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(jobId);
+            Files.deleteIfExists(stagedFile);
+            throw e;
+        }
+        return job;
+    }
+
+    public Optional<UploadJob> find(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    /**
+     * Requests cancellation. A queued job never starts; a running job stops at its next row.
+     * Chunks committed before that point are kept.
+     */
+    public Optional<UploadJob> cancel(String jobId) {
+        UploadJob job = jobs.get(jobId);
+        if (job != null && !job.isFinished()) {
+            job.cancel();
+        }
+        return Optional.ofNullable(job);
+    }
+
+    private void run(UploadJob job, Path stagedFile, UploadMode mode) {
+        try {
+            OrderBatchWriter writer = fileUploadService.newBatchWriter(mode);
+            if (!job.start(writer))
+                return;
+
+            ImportResult result = fileUploadService.importFile(stagedFile, job.getFileName(), writer);
+            // Rejected rows are only counted while parsing; this is their one report per upload
+            if (result.getRowsRejected() > 0) {
+                log.info("Upload {}: bỏ qua {} dòng không hợp lệ", job.getFileName(), result.getRowsRejected());
+            }
+            if (result.getRowsPersisted() == 0) {
+                job.finish(UploadJob.State.FAILED, "Không tìm thấy dữ liệu hợp lệ trong file");
+            } else {
+                job.complete(result);
+            }
+        } catch (CancellationException e) {
+            job.finish(UploadJob.State.CANCELLED, "Đã hủy");
+        } catch (CsvValidationException e) {
+            job.finish(UploadJob.State.FAILED, "Lỗi định dạng CSV: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            job.finish(UploadJob.State.FAILED, e.getMessage());
+        } catch (Exception e) {
+            job.finish(UploadJob.State.FAILED, "Lỗi khi xử lý file: " + e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(stagedFile);
+            } catch (IOException e) {
+                log.warn("Không thể xóa file tạm {}", stagedFile, e);
+            }
+        }
+    }
+
+    private void evictExpiredJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(cutoff));
+    }
+
+    private static String extensionOf(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot >= 0 ? fileName.substring(dot).toLowerCase() : "";
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
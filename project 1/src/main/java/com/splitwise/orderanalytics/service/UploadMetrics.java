@@ -0,0 +1,65 @@
+package com.splitwise.orderanalytics.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Upload meters: time spent per phase (parse, stock-update, persist) and rows accepted or
+ * rejected. Rows are counted per chunk rather than per row to stay off the parser's hot path;
+ * a rate over {@code orders_upload_rows_total} gives rows per second.
+ */
+@Component
+public class UploadMetrics {
+
+    private final Timer parse;
+    private final Timer stockUpdate;
+    private final Timer persist;
+    private final Counter accepted;
+    private final Counter rejected;
+
+    public UploadMetrics(MeterRegistry registry) {
+        this.parse = phaseTimer(registry, "parse");
+        this.stockUpdate = phaseTimer(registry, "stock-update");
+        this.persist = phaseTimer(registry, "persist");
+        this.accepted = rowCounter(registry, "accepted");
+        this.rejected = rowCounter(registry, "rejected");
+    }
+
+    public void recordParse(long nanos) {
+        parse.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordStockUpdate(long nanos) {
+        stockUpdate.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPersist(long nanos) {
+        persist.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void rowsAccepted(long rows) {
+        accepted.increment(rows);
+    }
+
+    public void rowsRejected(long rows) {
+        rejected.increment(rows);
+    }
+
+    private static Timer phaseTimer(MeterRegistry registry, String phase) {
+        return Timer.builder("orders.upload.phase")
+                .description("Time spent in each upload phase")
+                .tag("phase", phase)
+                .register(registry);
+    }
+
+    private static Counter rowCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("orders.upload.rows")
+                .description("Uploaded rows by outcome")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
@@ -0,0 +1,154 @@
+package com.splitwise.orderanalytics.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+/**
+ * One part of an upload that can be parsed on its own: a CSV file, one sheet of an .xlsx
+ * workbook, or a whole .xls workbook (the legacy format has no streaming reader, so its sheets
+ * are read together from one in-memory workbook).
+ */
+public class UploadSource {
+
+    public enum Type {
+        CSV, XLSX_SHEET, XLS
+    }
+
+    private final Path file;
+    private final String name;
+    private final Type type;
+    private final int sheetIndex;
+
+    private UploadSource(Path file, String name, Type type, int sheetIndex) {
+        this.file = file;
+        this.name = name;
+        this.type = type;
+        this.sheetIndex = sheetIndex;
+    }
+
+    public static boolean isSupported(String fileName) {
+        String lower = fileName.toLowerCase();
+        return lower.endsWith(".csv") || lower.endsWith(".xlsx") || lower.endsWith(".xls") || lower.endsWith(".zip");
+    }
+
+    /**
+     * Splits a staged upload into sources. A ZIP is extracted into {@code workDir} first; entries
+     * that are not CSV or Excel files are skipped with a warning.
+     *
+     * @throws IllegalArgumentException when the archive exceeds the entry or size limit
+     */
+    public static List<UploadSource> expand(Path file, String fileName, Path workDir, int maxEntries,
+            long maxExtractedBytes, List<String> warnings) throws IOException {
+        List<UploadSource> sources = new ArrayList<>();
+        if (!fileName.toLowerCase().endsWith(".zip")) {
+            addFile(file, fileName, sources);
+            return sources;
+        }
+
+        try (ZipFile zip = openZip(file)) {
+            Files.createDirectories(workDir);
+            long extracted = 0;
+            int index = 0;
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                String entryName = entry.getName();
+                String baseName = entryName.substring(entryName.lastIndexOf('/') + 1);
+                if (entry.isDirectory() || entryName.startsWith("__MACOSX/") || baseName.startsWith(".")) {
+                    continue;
+                }
+                if (!isSupported(baseName) || baseName.toLowerCase().endsWith(".zip")) {
+                    warnings.add("Bỏ qua " + entryName + ": chỉ hỗ trợ file Excel hoặc CSV trong file ZIP");
+                    continue;
+                }
+                if (++index > maxEntries) {
+                    throw new IllegalArgumentException("File ZIP chứa quá " + maxEntries + " file");
+                }
+
+                // Entry names never become paths, so "../" in an archive cannot escape the work directory
+                Path target = workDir.resolve(index + extensionOf(baseName));
+                try (InputStream in = zip.getInputStream(entry); OutputStream out = Files.newOutputStream(target)) {
+                    extracted += copy(in, out, maxExtractedBytes - extracted);
+                }
+                try {
+                    addFile(target, entryName, sources);
+                } catch (IOException e) {
+                    warnings.add("Bỏ qua " + entryName + ": " + e.getMessage());
+                }
+            }
+        }
+        return sources;
+    }
+
+    private static void addFile(Path file, String name, List<UploadSource> sources) throws IOException {
+        String lower = name.toLowerCase();
+        if (lower.endsWith(".csv")) {
+            sources.add(new UploadSource(file, name, Type.CSV, 0));
+        } else if (lower.endsWith(".xls")) {
+            sources.add(new UploadSource(file, name, Type.XLS, 0));
+        } else {
+            List<String> sheets = XlsxStreamingReader.sheetNames(file);
+            for (int i = 0; i < sheets.size(); i++) {
+                String sourceName = sheets.size() > 1 ? name + " / " + sheets.get(i) : name;
+                sources.add(new UploadSource(file, sourceName, Type.XLSX_SHEET, i));
+            }
+        }
+    }
+
+    // Archives made on older Windows tools store names in the OEM code page rather than UTF-8
+    private static ZipFile openZip(Path file) throws IOException {
+        try {
+            return new ZipFile(file.toFile(), StandardCharsets.UTF_8);
+        } catch (ZipException e) {
+            return new ZipFile(file.toFile(), Charset.forName("IBM437"));
+        }
+    }
+
+    // Counts the bytes actually inflated; the sizes an archive declares can be forged
+    private static long copy(InputStream in, OutputStream out, long limit) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            total += read;
+            if (total > limit) {
+                throw new IllegalArgumentException("File ZIP vượt quá dung lượng cho phép sau khi giải nén");
+            }
+            out.write(buffer, 0, read);
+        }
+        return total;
+    }
+
+    private static String extensionOf(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot >= 0 ? fileName.substring(dot).toLowerCase() : "";
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /** File name (the path inside the ZIP for archives), plus the sheet name for multi-sheet workbooks. */
+    public String getName() {
+        return name;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getSheetIndex() {
+        return sheetIndex;
+    }
+}
@@ -0,0 +1,255 @@
+package com.splitwise.orderanalytics.service;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads .xlsx sheets with the POI event model: the sheet XML is streamed through a SAX handler
+ * and each row is handed to the consumer as soon as it closes, so heap use does not grow with
+ * the number of rows. Only the shared strings table is held in memory.
+ */
+public class XlsxStreamingReader {
+
+    private XlsxStreamingReader() {}
+
+    /** Sheet names in workbook order; a sheet's position is the index {@link #readSheet} takes. */
+    public static List<String> sheetNames(Path file) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) new XSSFReader(pkg).getSheetsData();
+            List<String> names = new ArrayList<>();
+            while (sheets.hasNext()) {
+                sheets.next().close();
+                names.add(sheets.getSheetName());
+            }
+            return names;
+        } catch (OpenXML4JException e) {
+            throw new IOException("Không thể đọc file Excel: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Streams one sheet. Each call opens its own package handle and shared strings table, so
+     * different sheets of a workbook can be read from different threads at the same time.
+     */
+    public static void readSheet(Path file, int sheetIndex, Consumer<XlsxRow> consumer) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            SharedStrings sharedStrings = new ReadOnlySharedStringsTable(pkg, false);
+
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            for (int i = 0; i < sheetIndex && sheets.hasNext(); i++) {
+                sheets.next().close();
+            }
+            if (!sheets.hasNext()) {
+                return;
+            }
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new SheetHandler(sharedStrings, consumer));
+                parser.parse(new InputSource(sheet));
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Không thể đọc file Excel: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * One sheet row. The instance is reused for every row of the sheet, so consumers must copy
+     * anything they keep. Numeric cells hold their raw value (e.g. "12.5" or a date serial).
+     */
+    public static class XlsxRow {
+        private int rowNum;
+        private int sheetRowCount;
+        private String[] values = new String[16];
+        private boolean[] numeric = new boolean[16];
+        private int width;
+
+        public int getRowNum() {
+            return rowNum;
+        }
+
+        /** Row count declared by the sheet's dimension element, or 0 when the writer omitted it. */
+        public int getSheetRowCount() {
+            return sheetRowCount;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public String getValue(int column) {
+            return column < width ? values[column] : null;
+        }
+
+        public boolean isNumeric(int column) {
+            return column < width && numeric[column];
+        }
+
+        public boolean isEmpty() {
+            for (int i = 0; i < width; i++) {
+                if (values[i] != null && !values[i].trim().isEmpty()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void reset(int rowNum) {
+            Arrays.fill(values, 0, width, null);
+            Arrays.fill(numeric, 0, width, false);
+            this.rowNum = rowNum;
+            this.width = 0;
+        }
+
+        private void set(int column, String value, boolean isNumeric) {
+            if (column >= values.length) {
+                int capacity = Math.max(column + 1, values.length * 2);
+                values = Arrays.copyOf(values, capacity);
+                numeric = Arrays.copyOf(numeric, capacity);
+            }
+            values[column] = value;
+            numeric[column] = isNumeric;
+            width = Math.max(width, column + 1);
+        }
+    }
+
+    private static class SheetHandler extends DefaultHandler {
+        private final SharedStrings sharedStrings;
+        private final Consumer<XlsxRow> consumer;
+        private final XlsxRow row = new XlsxRow();
+        private final StringBuilder text = new StringBuilder();
+
+        private int nextRowNum;
+        private int nextColumn;
+        private int column;
+        private String cellType;
+        private boolean collecting;
+
+        SheetHandler(SharedStrings sharedStrings, Consumer<XlsxRow> consumer) {
+            this.sharedStrings = sharedStrings;
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "dimension":
+                    // e.g. ref="A1:K5000"; comes before sheetData, so it is known for every row
+                    String dimension = attributes.getValue("ref");
+                    int separator = dimension != null ? dimension.indexOf(':') : -1;
+                    if (separator > 0) {
+                        row.sheetRowCount = rowIndex(dimension.substring(separator + 1));
+                    }
+                    break;
+                case "row":
+                    String r = attributes.getValue("r");
+                    int rowNum = r != null ? Integer.parseInt(r) - 1 : nextRowNum;
+                    row.reset(rowNum);
+                    nextRowNum = rowNum + 1;
+                    nextColumn = 0;
+                    break;
+                case "c":
+                    String ref = attributes.getValue("r");
+                    column = ref != null ? columnIndex(ref) : nextColumn;
+                    nextColumn = column + 1;
+                    cellType = attributes.getValue("t");
+                    text.setLength(0);
+                    break;
+                case "v":
+                case "t":
+                    // <t> only appears inside inline strings (<is>) in sheet XML
+                    collecting = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (collecting) {
+                text.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v":
+                case "t":
+                    collecting = false;
+                    break;
+                case "c":
+                    storeCell();
+                    break;
+                case "row":
+                    consumer.accept(row);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void storeCell() {
+            if (text.length() == 0) {
+                return;
+            }
+            if (cellType == null || "n".equals(cellType)) {
+                row.set(column, text.toString(), true);
+            } else if ("s".equals(cellType)) {
+                int index = Integer.parseInt(text.toString());
+                row.set(column, sharedStrings.getItemAt(index).getString().trim(), false);
+            } else if ("b".equals(cellType)) {
+                row.set(column, "1".equals(text.toString()) ? "true" : "false", false);
+            } else if ("e".equals(cellType)) {
+                row.set(column, null, false);
+            } else {
+                // "str" (cached formula result) and "inlineStr"
+                row.set(column, text.toString().trim(), false);
+            }
+        }
+
+        private static int rowIndex(String cellRef) {
+            int row = 0;
+            for (int i = 0; i < cellRef.length(); i++) {
+                char c = cellRef.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    row = row * 10 + (c - '0');
+                }
+            }
+            return row;
+        }
+
+        private static int columnIndex(String cellRef) {
+            int column = 0;
+            for (int i = 0; i < cellRef.length(); i++) {
+                char c = cellRef.charAt(i);
+                if (c < 'A' || c > 'Z') {
+                    break;
+                }
+                column = column * 26 + (c - 'A' + 1);
+            }
+            return column - 1;
+        }
+    }
+}
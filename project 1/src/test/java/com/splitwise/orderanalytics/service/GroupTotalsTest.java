@@ -0,0 +1,53 @@
+package com.splitwise.orderanalytics.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GroupTotalsTest {
+
+    private static final int NO_VALUE = -1;
+
+    @Test
+    void rowsWithoutAValueFormOneGroup() {
+        GroupTotals totals = new GroupTotals();
+        for (int i = 0; i < 1000; i++) {
+            totals.add(NO_VALUE, 1, 2, 300);
+        }
+        for (int key = 0; key < 40; key++) {
+            totals.add(key, 1, 1, 100);
+        }
+
+        assertThat(totals.size()).isEqualTo(41);
+        int[] top = totals.topSlots(1, false);
+        assertThat(totals.key(top[0])).isEqualTo(NO_VALUE);
+        assertThat(totals.count(top[0])).isEqualTo(1000);
+        assertThat(totals.quantity(top[0])).isEqualTo(2000);
+        assertThat(totals.amount(top[0])).isEqualTo(300_000);
+    }
+
+    @Test
+    void mergedPartitionsKeepEveryGroup() {
+        GroupTotals left = new GroupTotals();
+        GroupTotals right = new GroupTotals();
+        Map<Integer, Long> expected = new HashMap<>();
+        // Enough keys to force several resizes on both sides
+        for (int key = NO_VALUE; key < 500; key++) {
+            left.add(key, 1, 1, key + 10);
+            right.add(key, 2, 1, key + 10);
+            expected.put(key, 3L);
+        }
+
+        left.addAll(right);
+
+        assertThat(left.size()).isEqualTo(expected.size());
+        Map<Integer, Long> counts = new HashMap<>();
+        for (int slot : left.topSlots(expected.size(), true)) {
+            counts.put(left.key(slot), left.count(slot));
+        }
+        assertThat(counts).isEqualTo(expected);
+    }
+}
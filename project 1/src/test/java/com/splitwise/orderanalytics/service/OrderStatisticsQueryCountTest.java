@@ -0,0 +1,96 @@
+package com.splitwise.orderanalytics.service;
+
+import com.splitwise.orderanalytics.dto.OrderStatistics;
+import com.splitwise.orderanalytics.entity.Order;
+import com.splitwise.orderanalytics.entity.OrderStatus;
+import com.splitwise.orderanalytics.repository.OrderRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the grouped statistics queries against sliding back into one query per status, product or
+ * day. The in-memory column store and sketches are off so every figure comes from the database.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.analytics.columnar.enabled=false",
+        "app.analytics.sketch.enabled=false",
+        "app.analytics.distinct.enabled=false"
+})
+@ActiveProfiles("test")
+class OrderStatisticsQueryCountTest {
+
+    // Status summary, top products, top customers and daily revenue
+    private static final long STATEMENTS_PER_CALL = 4;
+
+    @Autowired
+    private OrderAnalysisService orderAnalysisService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void overallStatisticsRunAFixedNumberOfStatements() {
+        saveOrders(10);
+        long small = statementsPerCall();
+
+        // Ten times the rows, across more days, products and customers, must not add queries
+        saveOrders(100);
+        long large = statementsPerCall();
+
+        assertThat(small).isEqualTo(STATEMENTS_PER_CALL);
+        assertThat(large).isEqualTo(STATEMENTS_PER_CALL);
+    }
+
+    private long statementsPerCall() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        statistics.clear();
+
+        OrderStatistics overall = orderAnalysisService.getOverallStatistics(OrderAnalysisService.DEFAULT_TOP_K,
+                null, false);
+
+        assertThat(overall.getTotalOrders()).isPositive();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void saveOrders(int count) {
+        OrderStatus[] statuses = OrderStatus.values();
+        LocalDateTime now = LocalDateTime.now();
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            BigDecimal price = BigDecimal.valueOf(10 + i);
+            orders.add(new Order("ORD-" + UUID.randomUUID(), "Customer " + i, "customer" + i + "@example.com",
+                    "Product " + i % 7, 2, price, price.multiply(BigDecimal.valueOf(2)),
+                    statuses[i % statuses.length], now.minusDays(i), "Category " + i % 3, "Region " + i % 4));
+        }
+        orderRepository.saveAll(orders);
+    }
+}
@@ -0,0 +1,160 @@
+package com.splitwise.orderanalytics.service;
+
+import com.splitwise.orderanalytics.entity.Product;
+import com.splitwise.orderanalytics.entity.StockMovementReason;
+import com.splitwise.orderanalytics.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductStockServiceTest {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 50;
+
+    @Autowired
+    private ProductStockService productStockService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void concurrentDeltasAreNotLost() throws Exception {
+        Product product = newProduct(1000);
+
+        runConcurrently(() -> {
+            for (int i = 0; i < ROUNDS; i++) {
+                productStockService.adjust(product.getName(), -1, StockMovementReason.UPLOAD, null);
+                productStockService.adjustById(product.getId(), 3, StockMovementReason.ADJUSTMENT);
+            }
+        });
+
+        assertThat(productStockService.currentStock(product.getId())).isEqualTo(1000 + THREADS * ROUNDS * 2);
+    }
+
+    @Test
+    void conditionalSetsRetriedOnConflictLoseNoUpdate() throws Exception {
+        Product product = newProduct(0);
+
+        // Each round is a read-modify-write through setStock, racing the other threads' deltas
+        runConcurrently(() -> {
+            for (int i = 0; i < ROUNDS; i++) {
+                while (true) {
+                    int current = productStockService.currentStock(product.getId());
+                    try {
+                        productStockService.setStock(product.getId(), current + 1, current);
+                        break;
+                    } catch (OptimisticLockingFailureException e) {
+                        // Someone else changed the stock in between; read it again
+                    }
+                }
+                productStockService.adjustById(product.getId(), 1, StockMovementReason.ADJUSTMENT);
+            }
+        });
+
+        assertThat(productStockService.currentStock(product.getId())).isEqualTo(THREADS * ROUNDS * 2);
+    }
+
+    @Test
+    void concurrentConditionalSetsLetExactlyOneWin() throws Exception {
+        Product product = newProduct(0);
+
+        for (int round = 1; round <= 10; round++) {
+            int before = productStockService.currentStock(product.getId());
+            AtomicInteger wins = new AtomicInteger();
+            runConcurrently(() -> {
+                try {
+                    productStockService.setStock(product.getId(), before + 100, before);
+                    wins.incrementAndGet();
+                } catch (OptimisticLockingFailureException e) {
+                    // Lost the race, as all but one must
+                }
+            });
+
+            assertThat(wins.get()).isEqualTo(1);
+            assertThat(productStockService.currentStock(product.getId())).isEqualTo(round * 100);
+        }
+    }
+
+    @Test
+    void setStockWithStaleExpectedStockIsRejected() {
+        Product product = newProduct(10);
+
+        assertThat(productStockService.setStock(product.getId(), 20, 10)).isEqualTo(20);
+        assertThatThrownBy(() -> productStockService.setStock(product.getId(), 30, 10))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(productStockService.currentStock(product.getId())).isEqualTo(20);
+
+        assertThat(productStockService.setStock(product.getId(), 5, null)).isEqualTo(5);
+        assertThat(productStockService.setStock(-1L, 5, null)).isNull();
+    }
+
+    @Test
+    void deltasOfARolledBackTransactionAreDiscarded() {
+        Product product = newProduct(100);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            productStockService.adjust(product.getName(), -40, StockMovementReason.UPLOAD, null);
+            productStockService.adjustById(product.getId(), 5, StockMovementReason.ADJUSTMENT);
+            status.setRollbackOnly();
+        });
+        assertThat(productStockService.currentStock(product.getId())).isEqualTo(100);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            productStockService.adjust(product.getName().toUpperCase(), -40, StockMovementReason.UPLOAD, null);
+            productStockService.adjust(product.getName(), 15, StockMovementReason.UPLOAD, null);
+        });
+        assertThat(productStockService.currentStock(product.getId())).isEqualTo(75);
+    }
+
+    private Product newProduct(int stock) {
+        return productRepository.save(new Product("Product " + UUID.randomUUID(), stock));
+    }
+
+    private interface Task {
+        void run() throws Exception;
+    }
+
+    // Starts the task on every thread at once and rethrows the first failure
+    private static void runConcurrently(Task task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}